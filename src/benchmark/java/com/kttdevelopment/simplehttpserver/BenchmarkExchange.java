@@ -0,0 +1,110 @@
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * An exchange with no connection. The request body can be read again for every use and the response body is discarded.
+ */
+public final class BenchmarkExchange extends HttpExchange {
+
+    private static final InetSocketAddress localAddress = new InetSocketAddress("127.0.0.1", 8080);
+
+    private final HttpContext context;
+    private final String method;
+    private final URI uri;
+    private final Headers requestHeaders;
+    private final byte[] body;
+    private final InetSocketAddress remoteAddress;
+
+    private final Headers responseHeaders = new Headers();
+    private int code = -1;
+    private Object attribute;
+
+    public BenchmarkExchange(final HttpContext context, final String method, final String uri, final Headers requestHeaders, final byte[] body){
+        this(context, method, uri, requestHeaders, body, localAddress);
+    }
+
+    public BenchmarkExchange(final HttpContext context, final String method, final String uri, final Headers requestHeaders, final byte[] body, final InetSocketAddress remoteAddress){
+        this.context        = context;
+        this.method         = method;
+        this.uri            = URI.create(uri);
+        this.requestHeaders = requestHeaders;
+        this.body           = body;
+        this.remoteAddress  = remoteAddress;
+    }
+
+    /**
+     * Creates a context on a server that is never started.
+     *
+     * @param path context
+     * @return http context
+     * @throws IOException if the server could not be created
+     */
+    public static HttpContext createContext(final String path) throws IOException{
+        return HttpServer.create().createContext(path);
+    }
+
+    /**
+     * Clears the response so the exchange can be handled again.
+     */
+    public void reset(){
+        responseHeaders.clear();
+        code = -1;
+    }
+
+    @Override
+    public Headers getRequestHeaders(){ return requestHeaders; }
+
+    @Override
+    public Headers getResponseHeaders(){ return responseHeaders; }
+
+    @Override
+    public URI getRequestURI(){ return uri; }
+
+    @Override
+    public String getRequestMethod(){ return method; }
+
+    @Override
+    public HttpContext getHttpContext(){ return context; }
+
+    @Override
+    public void close(){ }
+
+    @Override
+    public InputStream getRequestBody(){ return new ByteArrayInputStream(body); }
+
+    @Override
+    public OutputStream getResponseBody(){ return OutputStream.nullOutputStream(); }
+
+    @Override
+    public void sendResponseHeaders(final int rCode, final long responseLength){ code = rCode; }
+
+    @Override
+    public InetSocketAddress getRemoteAddress(){ return remoteAddress; }
+
+    @Override
+    public int getResponseCode(){ return code; }
+
+    @Override
+    public InetSocketAddress getLocalAddress(){ return localAddress; }
+
+    @Override
+    public String getProtocol(){ return "HTTP/1.1"; }
+
+    @Override
+    public Object getAttribute(final String name){ return attribute; }
+
+    @Override
+    public void setAttribute(final String name, final Object value){ attribute = value; }
+
+    @Override
+    public void setStreams(final InputStream i, final OutputStream o){ }
+
+    @Override
+    public HttpPrincipal getPrincipal(){ return null; }
+
+}
@@ -0,0 +1,30 @@
+package com.kttdevelopment.simplehttpserver;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextRecorderBenchmark {
+
+    private final ContextRecorder recorder = new ContextRecorder();
+
+    @Benchmark
+    @Threads(1)
+    public void record(){
+        recorder.record(200, 1024, ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended(){
+        recorder.record(200, 1024, ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.kttdevelopment.simplehttpserver;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextUtilBenchmark {
+
+    // implementation prior to 4.5.0
+    private static final Pattern forwardSlashRegex = Pattern.compile("/{2,}|\\\\+");
+    private static final Pattern stripSlashRegex = Pattern.compile("^\\s*/*|/*\\s*$");
+
+    private static String getRegexContext(final String context, final boolean leadingSlash, final boolean trailingSlash){
+        final String linSlash = forwardSlashRegex.matcher(context).replaceAll("/");
+        final String strippedSlash = stripSlashRegex.matcher(linSlash).replaceAll("");
+        return strippedSlash.length() == 0
+            ? leadingSlash || trailingSlash ? "/" : ""
+            : (leadingSlash ? "/" : "") + strippedSlash + (trailingSlash ? "/" : "");
+    }
+
+    @Param({"/static/css/site.css", "static\\css//site.css/ "})
+    public String context;
+
+    // more contexts than the cache holds
+    private final String[] contexts = new String[4096];
+
+    @Setup
+    public void setup(){
+        final Random random = new Random(0);
+        for(int i = 0; i < contexts.length; i++)
+            contexts[i] = context + random.nextInt();
+    }
+
+    @Benchmark
+    public String regex(){
+        return getRegexContext(context, true, false);
+    }
+
+    @Benchmark
+    public String scanner(){
+        return ContextUtil.getContext(context, true, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4096)
+    public void regexUncached(final Blackhole blackhole){
+        for(final String context : contexts)
+            blackhole.consume(getRegexContext(context, true, false));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4096)
+    public void scannerUncached(final Blackhole blackhole){
+        for(final String context : contexts)
+            blackhole.consume(ContextUtil.getContext(context, true, false));
+    }
+
+    @Benchmark
+    public String join(){
+        return ContextUtil.joinContexts(true, false, "static", context, "index.html");
+    }
+
+}
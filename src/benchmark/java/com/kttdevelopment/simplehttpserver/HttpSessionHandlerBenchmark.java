@@ -0,0 +1,85 @@
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.Headers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpSessionHandlerBenchmark {
+
+    private static final int SESSIONS = 1024;
+
+    private HttpSessionHandler handler;
+    private BenchmarkExchange existing, created;
+
+    @Setup
+    public void setup() throws IOException{
+        handler = new HttpSessionHandler();
+
+        created = new BenchmarkExchange(BenchmarkExchange.createContext("/"), "GET", "/", new Headers(), new byte[0]);
+        final String id = handler.getSession(created).getSessionID();
+        created.reset();
+
+        final Headers headers = new Headers();
+        headers.add("Cookie", "theme=dark; __session-id=" + id);
+        existing = new BenchmarkExchange(created.getHttpContext(), "GET", "/", headers, new byte[0]);
+    }
+
+    @Benchmark
+    public HttpSession existingSession(){
+        return handler.getSession(existing);
+    }
+
+    // each thread looks up its own session on a shared handler
+    @State(Scope.Thread)
+    public static class Client {
+
+        BenchmarkExchange exchange;
+
+        @Setup
+        public void setup(final HttpSessionHandlerBenchmark benchmark) throws IOException{
+            final BenchmarkExchange created = new BenchmarkExchange(BenchmarkExchange.createContext("/"), "GET", "/", new Headers(), new byte[0]);
+            final String id = benchmark.handler.getSession(created).getSessionID();
+
+            final Headers headers = new Headers();
+            headers.add("Cookie", "theme=dark; __session-id=" + id);
+            exchange = new BenchmarkExchange(created.getHttpContext(), "GET", "/", headers, new byte[0]);
+        }
+
+    }
+
+    @Benchmark
+    @Threads(64)
+    public HttpSession existingSessionContended(final Client client){
+        return handler.getSession(client.exchange);
+    }
+
+    // the same lookup serialized on one lock, as every lookup was prior to 4.5.0
+    @Benchmark
+    @Threads(64)
+    public HttpSession lockedSessionContended(final Client client){
+        synchronized(this){
+            return handler.getSession(client.exchange);
+        }
+    }
+
+    // a new handler for each batch so sessions do not accumulate
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public void newSession(final Blackhole blackhole){
+        final HttpSessionHandler handler = new HttpSessionHandler();
+        for(int i = 0; i < SESSIONS; i++){
+            blackhole.consume(handler.getSession(created));
+            created.reset(); // remove Set-Cookie so the next call creates a session
+        }
+    }
+
+}
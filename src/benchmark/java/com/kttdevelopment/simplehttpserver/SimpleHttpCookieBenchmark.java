@@ -0,0 +1,41 @@
+package com.kttdevelopment.simplehttpserver;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimpleHttpCookieBenchmark {
+
+    private final SimpleHttpCookie session = new SimpleHttpCookie.Builder("__session-id", "0".repeat(32))
+        .setPath("/")
+        .setHttpOnly(true)
+        .build();
+
+    private final SimpleHttpCookie full = new SimpleHttpCookie.Builder("preferences", "theme=dark")
+        .setDomain("example.com")
+        .setPath("/account")
+        .setSameSite("Strict")
+        .setExpires(new Date(1_700_000_000_000L))
+        .setMaxAge(3600)
+        .setSecure(true)
+        .setHttpOnly(true)
+        .build();
+
+    @Benchmark
+    public String session(){
+        return session.toCookieHeaderString();
+    }
+
+    @Benchmark
+    public String allAttributes(){
+        return full.toCookieHeaderString();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimpleHttpExchangeBenchmark {
+
+    private static final String boundary = "----WebKitFormBoundaryBenchmark";
+
+    private BenchmarkExchange get, urlencoded, multipart;
+
+    @Setup
+    public void setup() throws IOException{
+        final HttpContext context = BenchmarkExchange.createContext("/");
+
+        final Headers getHeaders = new Headers();
+        getHeaders.add("Cookie", "theme=dark; __session-id=" + "0".repeat(32));
+        get = new BenchmarkExchange(context, "GET", "/search?q=simple+http+server&page=2&sort=asc", getHeaders, new byte[0]);
+
+        final Headers urlencodedHeaders = new Headers();
+        urlencodedHeaders.add("Content-type", "application/x-www-form-urlencoded");
+        urlencoded = new BenchmarkExchange(context, "POST", "/form", urlencodedHeaders, "name=Ktt+Development&email=user%40example.com&message=Hello%2C+world%21&subscribe=true".getBytes(StandardCharsets.UTF_8));
+
+        final Headers multipartHeaders = new Headers();
+        multipartHeaders.add("Content-type", "multipart/form-data; boundary=" + boundary);
+        final String body =
+            "--" + boundary + "\r\n" +
+            "Content-Disposition: form-data; name=\"name\"\r\n" +
+            "\r\n" +
+            "Ktt Development\r\n" +
+            "--" + boundary + "\r\n" +
+            "Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "\r\n" +
+            "x".repeat(1024) + "\r\n" +
+            "--" + boundary + "--\r\n";
+        multipart = new BenchmarkExchange(context, "POST", "/upload", multipartHeaders, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public SimpleHttpExchange get(){
+        return SimpleHttpExchange.create(get);
+    }
+
+    @Benchmark
+    public SimpleHttpExchange urlencodedPost(){
+        return SimpleHttpExchange.create(urlencoded);
+    }
+
+    @Benchmark
+    public SimpleHttpExchange multipartPost(){
+        return SimpleHttpExchange.create(multipart);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.BenchmarkExchange;
+import com.sun.net.httpserver.Headers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileHandlerBenchmark {
+
+    @Param({"PRELOAD", "MODLOAD", "CACHELOAD", "LIVELOAD"})
+    public ByteLoadingOption option;
+
+    private File dir;
+    private FileHandler handler;
+    private BenchmarkExchange exchange;
+
+    @Setup
+    public void setup() throws IOException{
+        dir = Files.createTempDirectory("benchmark").toFile();
+        final File file = new File(dir, "index.html");
+        Files.write(file.toPath(), "<html>".concat("x".repeat(4096)).concat("</html>").getBytes());
+
+        handler = new FileHandler(new CacheFileAdapter(TimeUnit.HOURS.toMillis(1)));
+        for(int i = 0; i < 64; i++) // other files in the handler
+            handler.addFile(file, "file" + i + ".html", option);
+        handler.addFile(file, option);
+
+        exchange = new BenchmarkExchange(BenchmarkExchange.createContext("/files"), "GET", "/files/index.html", new Headers(), new byte[0]);
+    }
+
+    @TearDown
+    public void tearDown(){
+        for(final File file : dir.listFiles())
+            file.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public int lookup() throws IOException{
+        exchange.reset();
+        handler.handle(exchange);
+        return exchange.getResponseCode();
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.BenchmarkExchange;
+import com.sun.net.httpserver.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares nesting a handler object per concern with filters compiled into a single {@link FilteredHandler}. A chain is built for every order of the concerns so call sites see many receiver types, as they would on a server with many contexts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilteredHandlerBenchmark {
+
+    private static final int CONCERNS = 4;
+    private static final int CHAINS = 24; // every order of the concerns
+
+    private HttpExchange exchange;
+    private final HttpHandler handler = exchange -> exchange.setAttribute("handled", Boolean.TRUE);
+
+    private final HttpHandler[] nested = new HttpHandler[CHAINS];
+    private final HttpHandler[] filtered = new HttpHandler[CHAINS];
+
+    @Setup
+    public void setup() throws IOException{
+        exchange = new BenchmarkExchange(BenchmarkExchange.createContext("/"), "GET", "/", new Headers(), new byte[0]);
+        for(int i = 0; i < CHAINS; i++){
+            HttpHandler next = handler;
+            final FilteredHandler.Builder builder = new FilteredHandler.Builder();
+            final List<Integer> concerns = new ArrayList<>(List.of(0, 1, 2, 3));
+            int permutation = i;
+            for(int j = CONCERNS; j > 0; j--){
+                final int concern = concerns.remove(permutation % j);
+                permutation /= j;
+                switch(concern){
+                    case 0:
+                        next = new MethodHandler(next);
+                        builder.before(exchange -> exchange.getRequestMethod().equals("GET"));
+                        break;
+                    case 1:
+                        next = new HeaderHandler(next);
+                        builder.before(exchange -> !exchange.getRequestHeaders().containsKey("X-Blocked"));
+                        break;
+                    case 2:
+                        next = new AttributeHandler(next);
+                        builder.before(exchange -> {
+                            exchange.setAttribute("filtered", Boolean.TRUE);
+                            return true;
+                        });
+                        break;
+                    default:
+                        next = new CountingHandler(next);
+                        builder.after(exchange -> exchange.setAttribute("count", exchange));
+                }
+            }
+            nested[i] = next;
+            filtered[i] = builder.build(handler);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHAINS)
+    public void nested() throws IOException{
+        for(final HttpHandler handler : nested)
+            handler.handle(exchange);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHAINS)
+    public void filtered() throws IOException{
+        for(final HttpHandler handler : filtered)
+            handler.handle(exchange);
+    }
+
+    // nested handlers
+
+    private static final class MethodHandler implements HttpHandler {
+
+        private final HttpHandler next;
+
+        MethodHandler(final HttpHandler next){
+            this.next = next;
+        }
+
+        @Override
+        public final void handle(final HttpExchange exchange) throws IOException{
+            if(exchange.getRequestMethod().equals("GET"))
+                next.handle(exchange);
+        }
+
+    }
+
+    private static final class HeaderHandler implements HttpHandler {
+
+        private final HttpHandler next;
+
+        HeaderHandler(final HttpHandler next){
+            this.next = next;
+        }
+
+        @Override
+        public final void handle(final HttpExchange exchange) throws IOException{
+            if(!exchange.getRequestHeaders().containsKey("X-Blocked"))
+                next.handle(exchange);
+        }
+
+    }
+
+    private static final class AttributeHandler implements HttpHandler {
+
+        private final HttpHandler next;
+
+        AttributeHandler(final HttpHandler next){
+            this.next = next;
+        }
+
+        @Override
+        public final void handle(final HttpExchange exchange) throws IOException{
+            exchange.setAttribute("filtered", Boolean.TRUE);
+            next.handle(exchange);
+        }
+
+    }
+
+    private static final class CountingHandler implements HttpHandler {
+
+        private final HttpHandler next;
+
+        CountingHandler(final HttpHandler next){
+            this.next = next;
+        }
+
+        @Override
+        public final void handle(final HttpExchange exchange) throws IOException{
+            try{
+                next.handle(exchange);
+            }finally{
+                exchange.setAttribute("count", exchange);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.BenchmarkExchange;
+import com.sun.net.httpserver.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the server connection limit reserved with compare and set against the synchronized check used before 4.5.0, with many threads adding and removing connections. Each thread is a different address so only the server wide counter is shared.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class ServerExchangeThrottlerBenchmark {
+
+    // implementation prior to 4.5.0
+    private static final class SynchronizedThrottler extends KeyedConnectionThrottler<InetAddress> {
+
+        private final AtomicInteger uConn = new AtomicInteger(0);
+        private final AtomicInteger uConnMax = new AtomicInteger(1_000_000);
+
+        @Override
+        final boolean addConnection(final HttpExchange exchange){
+            final InetAddress address = exchange.getRemoteAddress().getAddress();
+            synchronized(this){
+                final int umax = uConnMax.get();
+                if((umax < 0 || uConn.get() < umax) && addClientConnection(address, -1)){
+                    uConn.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        @Override
+        final void deleteConnection(final HttpExchange exchange){
+            if(deleteClientConnection(exchange.getRemoteAddress().getAddress()))
+                uConn.decrementAndGet();
+        }
+
+        @Override
+        public final int getMaxConnections(final HttpExchange exchange){
+            return -1;
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class Throttlers {
+
+        final ServerExchangeThrottler cas = new ServerExchangeThrottler(1_000_000);
+        final SynchronizedThrottler synchronizedThrottler = new SynchronizedThrottler();
+
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private static final AtomicInteger clients = new AtomicInteger();
+
+        HttpExchange exchange;
+
+        @Setup
+        public void setup() throws IOException{
+            final int client = clients.incrementAndGet();
+            exchange = new BenchmarkExchange(BenchmarkExchange.createContext("/"), "GET", "/", new Headers(), new byte[0], new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, (byte) (client >> 8), (byte) client}), 8080));
+        }
+
+    }
+
+    @Benchmark
+    public boolean cas(final Throttlers throttlers, final Client client){
+        final boolean added = throttlers.cas.addConnection(client.exchange);
+        throttlers.cas.deleteConnection(client.exchange);
+        return added;
+    }
+
+    @Benchmark
+    public boolean synchronizedCheck(final Throttlers throttlers, final Client client){
+        final boolean added = throttlers.synchronizedThrottler.addConnection(client.exchange);
+        throttlers.synchronizedThrottler.deleteConnection(client.exchange);
+        return added;
+    }
+
+}
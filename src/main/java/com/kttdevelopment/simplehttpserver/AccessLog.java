@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An access log that writes a line for every exchange handled by a server. Entries are added to a fixed size ring buffer without locks and written to the file in batches by a background thread, so logging does not wait for the file. If the buffer is full the entry is dropped and counted instead. <br>
+ * Lines use the common log format followed by the time taken to handle the exchange in microseconds: <br>
+ * <code>127.0.0.1 - - [10/Oct/2021:13:55:36 +0000] "GET /index.html HTTP/1.1" 200 2326 1250</code> <br>
+ * When the file reaches the maximum size it is renamed to <code>file.1</code>, previous files are shifted up to the maximum amount of files, and a new file is started.
+ *
+ * @see SimpleHttpServer#setAccessLog(AccessLog)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class AccessLog implements Closeable {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.US).withZone(ZoneOffset.UTC);
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final File file;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    // ring buffer; a slot may be written when its sequence equals the tail and read when it equals the head + 1
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; // writer thread only
+
+    private final long[] times;
+    private final String[] methods, paths, protocols;
+    private final InetAddress[] addresses;
+    private final int[] statuses;
+    private final long[] bytes, latencies;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    // writer thread only
+    private OutputStream out;
+    private long size;
+    private byte[] buffer = new byte[64 * 1024];
+    private int length = 0;
+    private long dateSecond = Long.MIN_VALUE;
+    private byte[] date;
+
+    private volatile boolean closed = false;
+    private final Thread writer;
+
+    /**
+     * Creates an access log that holds up to 8192 pending entries and keeps up to 5 files of 10 MB.
+     *
+     * @param file file to write to
+     * @throws IOException if the file could not be opened
+     *
+     * @see #AccessLog(File, int, long, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public AccessLog(final File file) throws IOException{
+        this(file, 8192, 10 * 1024 * 1024, 5);
+    }
+
+    /**
+     * Creates an access log.
+     *
+     * @param file file to write to
+     * @param capacity maximum amount of entries waiting to be written, rounded up to a power of two
+     * @param maxFileSize size in bytes at which the file is rotated, or 0 to never rotate
+     * @param maxFiles maximum amount of rotated files to keep
+     * @throws IOException if the file could not be opened
+     * @throws IllegalArgumentException if the capacity is less than 1 or the maximum amount of files is negative
+     *
+     * @see #AccessLog(File)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public AccessLog(final File file, final int capacity, final long maxFileSize, final int maxFiles) throws IOException{
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        if(maxFiles < 0)
+            throw new IllegalArgumentException("Maximum files can not be negative");
+
+        this.file           = file;
+        this.maxFileSize    = maxFileSize;
+        this.maxFiles       = maxFiles;
+
+        final int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask        = slots - 1;
+        sequences   = new AtomicLongArray(slots);
+        for(int i = 0; i < slots; i++)
+            sequences.set(i, i);
+
+        times       = new long[slots];
+        methods     = new String[slots];
+        paths       = new String[slots];
+        protocols   = new String[slots];
+        addresses   = new InetAddress[slots];
+        statuses    = new int[slots];
+        bytes       = new long[slots];
+        latencies   = new long[slots];
+
+        open();
+
+        writer = new Thread(this::run, "AccessLog-" + file.getName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+//
+
+    /**
+     * Returns the file being written to.
+     *
+     * @return access log file
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final File getFile(){
+        return file;
+    }
+
+    /**
+     * Returns the amount of entries dropped because the buffer was full or the file could not be written.
+     *
+     * @return dropped entries
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getDropped(){
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the amount of entries written to the file.
+     *
+     * @return written entries
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getWritten(){
+        return written.sum();
+    }
+
+    /**
+     * Adds an entry to the log. Does not block; if the buffer is full the entry is dropped.
+     *
+     * @param method request method
+     * @param path raw request path
+     * @param protocol request protocol
+     * @param address remote address
+     * @param status response code
+     * @param length response body bytes
+     * @param nanos time taken in nanoseconds
+     * @return if the entry was added
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean log(final String method, final String path, final String protocol, final InetAddress address, final int status, final long length, final long nanos){
+        if(closed){
+            dropped.increment();
+            return false;
+        }
+
+        long pos = tail.get();
+        int index;
+        while(true){
+            index = (int) (pos & mask);
+            final long diff = sequences.get(index) - pos;
+            if(diff == 0){
+                if(tail.compareAndSet(pos, pos + 1))
+                    break;
+                pos = tail.get();
+            }else if(diff < 0){ // full
+                dropped.increment();
+                return false;
+            }else{
+                pos = tail.get();
+            }
+        }
+
+        times[index]        = System.currentTimeMillis();
+        methods[index]      = method;
+        paths[index]        = path;
+        protocols[index]    = protocol;
+        addresses[index]    = address;
+        statuses[index]     = status;
+        bytes[index]        = length;
+        latencies[index]    = nanos;
+        sequences.set(index, pos + 1); // publish
+        return true;
+    }
+
+    /**
+     * Writes all pending entries and closes the file. Entries logged after the log is closed are dropped.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public final void close(){
+        closed = true;
+        LockSupport.unpark(writer);
+        try{
+            writer.join();
+        }catch(final InterruptedException ignored){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+//
+
+    private void run(){
+        while(true){
+            final boolean wasClosed = closed; // read before draining so entries published before closing are written
+            final int drained = drain();
+            if(drained > 0)
+                flush(drained);
+            else if(wasClosed)
+                break;
+            else
+                LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+        try{
+            if(out != null)
+                out.close();
+        }catch(final IOException ignored){ }
+    }
+
+    // formats pending entries into the buffer until it is full or there are none left
+    private int drain(){
+        int count = 0;
+        while(length < buffer.length / 2){
+            final int index = (int) (head & mask);
+            if(sequences.get(index) != head + 1)
+                break;
+            format(index);
+            methods[index]      = null;
+            paths[index]        = null;
+            protocols[index]    = null;
+            addresses[index]    = null;
+            sequences.set(index, head + mask + 1); // release slot
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    private void format(final int index){
+        final long second = times[index] / 1000;
+        if(second != dateSecond){
+            dateSecond = second;
+            date = DATE_FORMAT.format(Instant.ofEpochSecond(second)).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        final InetAddress address = addresses[index];
+        appendField(address != null ? address.getHostAddress() : null);
+        append(" - - [");
+        append(date);
+        append("] \"");
+        appendField(methods[index]);
+        append(' ');
+        appendField(paths[index]);
+        append(' ');
+        appendField(protocols[index]);
+        append("\" ");
+        append(statuses[index]);
+        append(' ');
+        append(bytes[index]);
+        append(' ');
+        append(latencies[index] / 1000);
+        append('\n');
+    }
+
+    private void flush(final int entries){
+        try{
+            if(out == null) // reopening failed during the last rotation
+                open();
+            out.write(buffer, 0, length);
+            out.flush();
+            size += length;
+            written.add(entries);
+        }catch(final IOException ignored){
+            dropped.add(entries);
+            return;
+        }finally{
+            length = 0;
+        }
+        if(maxFileSize > 0 && size >= maxFileSize)
+            rotate();
+    }
+
+    private void open() throws IOException{
+        out = new FileOutputStream(file, true);
+        size = file.length();
+    }
+
+    // the file is always reopened so a failed rotation does not leave a closed stream; entries are appended to the current file until a rotation succeeds
+    private void rotate(){
+        try{
+            out.close();
+            if(maxFiles == 0){
+                Files.deleteIfExists(file.toPath());
+            }else{
+                Files.deleteIfExists(new File(file.getPath() + '.' + maxFiles).toPath());
+                for(int i = maxFiles - 1; i >= 1; i--){
+                    final File rotated = new File(file.getPath() + '.' + i);
+                    if(rotated.exists())
+                        Files.move(rotated.toPath(), new File(file.getPath() + '.' + (i + 1)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(file.toPath(), new File(file.getPath() + ".1").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }catch(final IOException ignored){ // keep appending to the current file
+        }finally{
+            try{
+                open();
+            }catch(final IOException ignored){
+                out = null;
+            }
+        }
+    }
+
+    // ASCII formatting directly into the buffer
+
+    private void ensure(final int required){
+        if(length + required > buffer.length){
+            final byte[] larger = new byte[Math.max(buffer.length * 2, length + required)];
+            System.arraycopy(buffer, 0, larger, 0, length);
+            buffer = larger;
+        }
+    }
+
+    private void append(final char ch){
+        ensure(1);
+        buffer[length++] = (byte) ch;
+    }
+
+    private void append(final String str){
+        final int len = str.length();
+        ensure(len);
+        for(int i = 0; i < len; i++)
+            buffer[length++] = (byte) str.charAt(i);
+    }
+
+    private void appendField(final String str){
+        if(str == null){
+            append('-');
+            return;
+        }
+        final int len = str.length();
+        ensure(len);
+        for(int i = 0; i < len; i++){
+            final char ch = str.charAt(i);
+            buffer[length++] = ch < 0x20 || ch > 0x7E || ch == '"' ? (byte) '?' : (byte) ch; // keep one line per entry
+        }
+    }
+
+    private void append(final byte[] bytes){
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void append(long value){
+        if(value < 0){
+            append('-');
+            value = -value;
+        }
+        ensure(20);
+        final int start = length;
+        do{
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        }while(value > 0);
+        for(int i = start, j = length - 1; i < j; i++, j--){ // reverse digits
+            final byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+//
+
+    @Override
+    public String toString(){
+        return
+            "AccessLog"     + '{' +
+            "file"          + '=' +     file            + ", " +
+            "capacity"      + '=' +     (mask + 1)      + ", " +
+            "maxFileSize"   + '=' +     maxFileSize     + ", " +
+            "maxFiles"      + '=' +     maxFiles        + ", " +
+            "written"       + '=' +     written         + ", " +
+            "dropped"       + '=' +     dropped         +
+            '}';
+    }
+
+}
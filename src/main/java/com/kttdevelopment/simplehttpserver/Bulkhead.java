@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the exchanges of a context on their own executor, so that a slow context can not take the threads other contexts need. Exchanges are handed off from the server executor once their context is known; exchanges that arrive while the queue is full are sent <code>503 Service Unavailable</code>. <br>
+ * A bulkhead can be used by more than one context to give them a shared budget. Executors created by the bulkhead are shut down when it is closed; executors passed to it are not. Stopping a server does not close its bulkheads, since they may be shared.
+ *
+ * @see SimpleHttpServer#createContext(String, HttpHandler, Authenticator, Bulkhead)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class Bulkhead implements Closeable {
+
+    private static final AtomicInteger bulkheads = new AtomicInteger(0);
+
+    private final Executor executor;
+    private final ExecutorService owned;
+    private final int maxQueued;
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+
+    /**
+     * Creates a bulkhead with its own threads.
+     *
+     * @param concurrency maximum amount of exchanges handled at once
+     * @param maxQueued maximum amount of exchanges waiting for a thread, or -1 for unlimited
+     * @throws IllegalArgumentException if the concurrency is not positive
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public Bulkhead(final int concurrency, final int maxQueued){
+        if(concurrency <= 0)
+            throw new IllegalArgumentException("Concurrency must be positive");
+        final String name = "Bulkhead-" + bulkheads.incrementAndGet() + '-';
+        final AtomicInteger threads = new AtomicInteger(0);
+        owned = Executors.newFixedThreadPool(concurrency, runnable -> {
+            final Thread thread = new Thread(runnable, name + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = owned;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Creates a bulkhead that runs exchanges on an executor.
+     *
+     * @param executor executor
+     * @param maxQueued maximum amount of exchanges waiting for the executor to start them, or -1 for unlimited
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public Bulkhead(final Executor executor, final int maxQueued){
+        this.executor = executor;
+        owned = null;
+        this.maxQueued = maxQueued;
+    }
+
+//
+
+    /**
+     * Hands an exchange off to the bulkhead. If the queue is full the exchange is counted as rejected and should be sent {@link #reject(HttpExchange)}.
+     *
+     * @param exchange exchange to process
+     * @param handler handler to run on the bulkhead
+     * @return if the exchange was queued
+     *
+     * @see #reject(HttpExchange)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean execute(final HttpExchange exchange, final HttpHandler handler){
+        int current;
+        do{
+            current = queued.get();
+            if(maxQueued >= 0 && current >= maxQueued){
+                rejected.increment();
+                return false;
+            }
+        }while(!queued.compareAndSet(current, current + 1));
+
+        final long submitted = System.nanoTime();
+        try{
+            executor.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                waitTime.add(System.nanoTime() - submitted);
+                try{
+                    handler.handle(exchange);
+                }catch(final IOException | RuntimeException ignored){
+                    exchange.close();
+                }finally{
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+            return true;
+        }catch(final RejectedExecutionException ignored){
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Sends <code>503 Service Unavailable</code> to an exchange that was not queued.
+     *
+     * @param exchange exchange to process
+     * @throws IOException internal server error
+     *
+     * @see #execute(HttpExchange, HttpHandler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    static void reject(final HttpExchange exchange) throws IOException{
+        try{
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(503, -1);
+        }finally{
+            exchange.close();
+        }
+    }
+
+    /**
+     * Shuts down the threads created by this bulkhead. Exchanges already queued are still handled.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public final void close(){
+        if(owned != null)
+            owned.shutdown();
+    }
+
+//
+
+    /**
+     * Returns the executor exchanges are run on.
+     *
+     * @return executor
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final Executor getExecutor(){
+        return executor;
+    }
+
+    /**
+     * Returns the maximum amount of exchanges waiting for a thread.
+     *
+     * @return maximum queued exchanges, or -1 for unlimited
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getMaxQueued(){
+        return maxQueued;
+    }
+
+    /**
+     * Returns the amount of exchanges waiting for a thread.
+     *
+     * @return queued exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getQueued(){
+        return queued.get();
+    }
+
+    /**
+     * Returns the amount of exchanges being handled.
+     *
+     * @return active exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getActive(){
+        return active.get();
+    }
+
+    /**
+     * Returns the total amount of exchanges handled.
+     *
+     * @return completed exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getCompleted(){
+        return completed.sum();
+    }
+
+    /**
+     * Returns the total amount of exchanges rejected because the queue was full.
+     *
+     * @return rejected exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getRejected(){
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the total time exchanges waited for a thread.
+     *
+     * @return total wait time in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTotalWaitTime(){
+        return waitTime.sum();
+    }
+
+    @Override
+    public String toString(){
+        return
+            "Bulkhead"      + '{' +
+            "executor"      + '=' +     executor        + ", " +
+            "maxQueued"     + '=' +     maxQueued       + ", " +
+            "queued"        + '=' +     queued          + ", " +
+            "active"        + '=' +     active          + ", " +
+            "completed"     + '=' +     getCompleted()  + ", " +
+            "rejected"      + '=' +     getRejected()   +
+            '}';
+    }
+
+}
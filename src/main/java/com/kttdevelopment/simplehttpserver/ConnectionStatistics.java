@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+/**
+ * A snapshot of the connection reuse statistics for a server. Connections are identified by their remote address and port. Requests and connections are only tracked while the server has a maximum requests per connection or keep-alive timeout set.
+ *
+ * @see SimpleHttpServer#getConnectionStatistics()
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class ConnectionStatistics {
+
+    private final long requests, connections, limitedConnections;
+    private final int activeConnections;
+
+    ConnectionStatistics(final long requests, final long connections, final long limitedConnections, final int activeConnections){
+        this.requests           = requests;
+        this.connections        = connections;
+        this.limitedConnections = limitedConnections;
+        this.activeConnections  = activeConnections;
+    }
+
+    /**
+     * Returns the total amount of requests handled.
+     *
+     * @return total requests
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getRequests(){
+        return requests;
+    }
+
+    /**
+     * Returns the total amount of connections opened.
+     *
+     * @return total connections
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getConnections(){
+        return connections;
+    }
+
+    /**
+     * Returns the amount of requests that reused an existing connection.
+     *
+     * @return reused requests
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getReusedRequests(){
+        return Math.max(0, requests - connections);
+    }
+
+    /**
+     * Returns the amount of connections closed because they reached the maximum requests per connection.
+     *
+     * @return connections closed by the request limit
+     *
+     * @see SimpleHttpServer#setMaxRequestsPerConnection(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getLimitedConnections(){
+        return limitedConnections;
+    }
+
+    /**
+     * Returns the amount of connections that are currently open.
+     *
+     * @return active connections
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getActiveConnections(){
+        return activeConnections;
+    }
+
+    @Override
+    public String toString(){
+        return
+            "ConnectionStatistics"  + '{' +
+            "requests"              + '=' +     requests            + ", " +
+            "connections"           + '=' +     connections         + ", " +
+            "reusedRequests"        + '=' +     getReusedRequests() + ", " +
+            "limitedConnections"    + '=' +     limitedConnections  + ", " +
+            "activeConnections"     + '=' +     activeConnections   +
+            '}';
+    }
+
+}
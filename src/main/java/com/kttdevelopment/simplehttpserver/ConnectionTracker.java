@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Tracks requests made on each keep-alive connection and applies the server's keep-alive limits. Applications do not use this class.
+ *
+ * @see SimpleHttpServer#setMaxRequestsPerConnection(int)
+ * @see SimpleHttpServer#setKeepAliveTimeout(int)
+ * @see ConnectionStatistics
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+final class ConnectionTracker {
+
+    // native server idle limit; connections not seen within this window are assumed closed
+    private static final long nativeIdleInterval = TimeUnit.SECONDS.toMillis(Long.getLong("sun.net.httpserver.idleInterval", 30));
+    private static final long sweepInterval = TimeUnit.SECONDS.toMillis(1);
+
+    private final Map<InetSocketAddress,Connection> connections = new ConcurrentHashMap<>();
+
+    private final LongAdder requests    = new LongAdder();
+    private final LongAdder opened      = new LongAdder();
+    private final LongAdder limited     = new LongAdder();
+
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    private volatile int maxRequests        = -1;
+    private volatile int keepAliveTimeout   = -1;
+
+    /**
+     * Records an exchange against its connection and sets the keep-alive response headers. Connections are only tracked while a limit is set.
+     *
+     * @param exchange http exchange
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void handle(final HttpExchange exchange){
+        final int max = maxRequests;
+        final int timeout = keepAliveTimeout;
+        if(max <= 0 && timeout <= 0) // nothing to apply, skip the per connection bookkeeping
+            return;
+
+        final long now = System.currentTimeMillis();
+        final InetSocketAddress address = exchange.getRemoteAddress();
+        final Connection connection = connections.computeIfAbsent(address, addr -> {
+            opened.increment();
+            return new Connection();
+        });
+
+        requests.increment();
+        final int count = connection.requests.incrementAndGet();
+        connection.lastAccess = now;
+
+        final Headers headers = exchange.getResponseHeaders();
+
+        if(max > 0 && count >= max){
+            headers.set("Connection", "close");
+            limited.increment();
+            connections.remove(address);
+        }else if(isClosing(exchange)){
+            connections.remove(address);
+        }else if(max > 0 || timeout > 0){
+            headers.set("Keep-Alive",
+                (timeout > 0 ? "timeout=" + timeout : "") +
+                (timeout > 0 && max > 0 ? ", " : "") +
+                (max > 0 ? "max=" + (max - count) : "")
+            );
+        }
+
+        final long last = lastSweep.get();
+        if(now - last > sweepInterval && lastSweep.compareAndSet(last, now)){
+            final long idle = timeout > 0 ? Math.min(TimeUnit.SECONDS.toMillis(timeout), nativeIdleInterval) : nativeIdleInterval;
+            connections.values().removeIf(conn -> now - conn.lastAccess > idle);
+        }
+    }
+
+    private static boolean isClosing(final HttpExchange exchange){
+        final String connection = exchange.getRequestHeaders().getFirst("Connection");
+        return
+            connection != null
+            ? connection.equalsIgnoreCase("close")
+            : exchange.getProtocol().equalsIgnoreCase("HTTP/1.0");
+    }
+
+//
+
+    final void setMaxRequestsPerConnection(final int requests){
+        maxRequests = requests;
+        clearIfUnlimited();
+    }
+
+    final int getMaxRequestsPerConnection(){
+        return maxRequests;
+    }
+
+    final void setKeepAliveTimeout(final int seconds){
+        keepAliveTimeout = seconds;
+        clearIfUnlimited();
+    }
+
+    // untracked connections would otherwise stay active until a limit is set again
+    private void clearIfUnlimited(){
+        if(maxRequests <= 0 && keepAliveTimeout <= 0)
+            connections.clear();
+    }
+
+    final int getKeepAliveTimeout(){
+        return keepAliveTimeout;
+    }
+
+    final ConnectionStatistics getStatistics(){
+        return new ConnectionStatistics(requests.sum(), opened.sum(), limited.sum(), connections.size());
+    }
+
+    private static final class Connection {
+
+        private final AtomicInteger requests = new AtomicInteger(0);
+        private volatile long lastAccess;
+
+    }
+
+    @Override
+    public String toString(){
+        return
+            "ConnectionTracker"     + '{' +
+            "maxRequests"           + '=' +     maxRequests         + ", " +
+            "keepAliveTimeout"      + '=' +     keepAliveTimeout    + ", " +
+            "statistics"            + '=' +     getStatistics()     +
+            '}';
+    }
+
+}
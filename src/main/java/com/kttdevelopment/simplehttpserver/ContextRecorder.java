@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.HttpContext;
+
+import java.io.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the requests, response codes, bytes written and latency of a context. Applications do not use this class.
+ *
+ * @see ContextStatistics
+ * @see SimpleHttpServer#setContextStatisticsEnabled(boolean)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+final class ContextRecorder {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder[] statusClasses = new LongAdder[6];
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    ContextRecorder(){
+        for(int i = 0; i < statusClasses.length; i++)
+            statusClasses[i] = new LongAdder();
+    }
+
+    final void record(final int code, final long bytesWritten, final long nanos){
+        requests.increment();
+        statusClasses[code >= 100 && code < 600 ? code / 100 : 0].increment();
+        bytes.add(bytesWritten);
+        totalLatency.add(nanos);
+        maxLatency.accumulate(nanos);
+        latency.record(nanos);
+    }
+
+    final ContextStatistics getStatistics(final HttpContext context){
+        return getStatistics(context.getPath());
+    }
+
+    final ContextStatistics getStatistics(final String context){
+        final long[] classes = new long[statusClasses.length];
+        for(int i = 0; i < classes.length; i++)
+            classes[i] = statusClasses[i].sum();
+        return new ContextStatistics(context, requests.sum(), classes, bytes.sum(), totalLatency.sum(), maxLatency.get(), latency.getCounts());
+    }
+
+    /**
+     * Output stream that counts the bytes written to the response.
+     *
+     * @since 4.5.0
+     * @version 4.5.0
+     * @author Ktt Development
+     */
+    static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0; // only written by the exchange thread
+
+        CountingOutputStream(final OutputStream out){
+            super(out);
+        }
+
+        @Override
+        public final void write(final int b) throws IOException{
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public final void write(final byte[] b, final int off, final int len) throws IOException{
+            out.write(b, off, len);
+            count += len;
+        }
+
+        final long getCount(){
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+/**
+ * A snapshot of the request statistics for a context. Latencies are in nanoseconds, measured from when the exchange reaches the context until its handler returns, and are accurate to within about 6%.
+ *
+ * @see SimpleHttpServer#setContextStatisticsEnabled(boolean)
+ * @see SimpleHttpServer#getContextStatistics(String)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class ContextStatistics {
+
+    private final String context;
+    private final long requests;
+    private final long[] statusClasses;
+    private final long bytes, totalLatency, maxLatency;
+    private final long[] latencies;
+
+    ContextStatistics(final String context, final long requests, final long[] statusClasses, final long bytes, final long totalLatency, final long maxLatency, final long[] latencies){
+        this.context        = context;
+        this.requests       = requests;
+        this.statusClasses  = statusClasses;
+        this.bytes          = bytes;
+        this.totalLatency   = totalLatency;
+        this.maxLatency     = maxLatency;
+        this.latencies      = latencies;
+    }
+
+    /**
+     * Returns the context the statistics are for.
+     *
+     * @return context
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final String getContext(){
+        return context;
+    }
+
+    /**
+     * Returns the total amount of requests handled.
+     *
+     * @return total requests
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getRequests(){
+        return requests;
+    }
+
+    /**
+     * Returns the amount of responses sent with a status code in a class, where <code>2</code> is <code>2xx</code>, <code>4</code> is <code>4xx</code> and so on. Class <code>0</code> counts exchanges where no response was sent.
+     *
+     * @param statusClass status code class, 0 through 5
+     * @return amount of responses
+     *
+     * @see java.net.HttpURLConnection
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getResponses(final int statusClass){
+        return statusClass >= 0 && statusClass < statusClasses.length ? statusClasses[statusClass] : 0;
+    }
+
+    /**
+     * Returns the total amount of response body bytes written.
+     *
+     * @return bytes written
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getBytesWritten(){
+        return bytes;
+    }
+
+    /**
+     * Returns the latency that a percentage of requests completed within.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return latency in nanoseconds
+     *
+     * @see #getMedianLatency()
+     * @see #get99thPercentileLatency()
+     * @see #get999thPercentileLatency()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getLatency(final double percentile){
+        if(requests == 0)
+            return 0;
+        final long rank = Math.max(1, Math.min(requests, (long) Math.ceil(percentile / 100 * requests)));
+        long count = 0;
+        for(int i = 0; i < latencies.length; i++)
+            if((count += latencies[i]) >= rank)
+                return Math.min(LatencyHistogram.highestValueAt(i), maxLatency);
+        return maxLatency;
+    }
+
+    /**
+     * Returns the 50th percentile latency.
+     *
+     * @return latency in nanoseconds
+     *
+     * @see #getLatency(double)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getMedianLatency(){
+        return getLatency(50);
+    }
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return latency in nanoseconds
+     *
+     * @see #getLatency(double)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long get99thPercentileLatency(){
+        return getLatency(99);
+    }
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return latency in nanoseconds
+     *
+     * @see #getLatency(double)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long get999thPercentileLatency(){
+        return getLatency(99.9);
+    }
+
+    /**
+     * Returns the average latency.
+     *
+     * @return latency in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getMeanLatency(){
+        return requests == 0 ? 0 : totalLatency / requests;
+    }
+
+    /**
+     * Returns the total latency of all requests.
+     *
+     * @return latency in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTotalLatency(){
+        return totalLatency;
+    }
+
+    /**
+     * Returns the highest latency.
+     *
+     * @return latency in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getMaxLatency(){
+        return maxLatency;
+    }
+
+    @Override
+    public String toString(){
+        return
+            "ContextStatistics"     + '{' +
+            "context"               + '=' +     context                         + ", " +
+            "requests"              + '=' +     requests                        + ", " +
+            "2xx"                   + '=' +     statusClasses[2]                + ", " +
+            "3xx"                   + '=' +     statusClasses[3]                + ", " +
+            "4xx"                   + '=' +     statusClasses[4]                + ", " +
+            "5xx"                   + '=' +     statusClasses[5]                + ", " +
+            "bytesWritten"          + '=' +     bytes                           + ", " +
+            "p50"                   + '=' +     getMedianLatency()              + ", " +
+            "p99"                   + '=' +     get99thPercentileLatency()      + ", " +
+            "p999"                  + '=' +     get999thPercentileLatency()     + ", " +
+            "maxLatency"            + '=' +     maxLatency                      +
+            '}';
+    }
+
+}
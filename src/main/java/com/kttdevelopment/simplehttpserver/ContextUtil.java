@@ -18,21 +18,25 @@
 
 package com.kttdevelopment.simplehttpserver;
 
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A utility class used to generate uniform contexts. Applications do not use this class.
  *
  * @since 03.05.03
- * @version 4.4.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 public abstract class ContextUtil {
 
-    // replace consecutive slashes and back slashes with a forward slash
-    private static final Pattern forwardSlashRegex = Pattern.compile("/{2,}|\\\\+");
-    // remove start and end slashes as well as whitespace
-    private static final Pattern stripSlashRegex = Pattern.compile("^\\s*/*|/*\\s*$");
+    // maximum contexts remembered for each slash option; the cache is cleared once full so one-off paths do not hold it
+    private static final int cacheSize = 256;
+
+    private static final Map<String,String> cache          = new ConcurrentHashMap<>();
+    private static final Map<String,String> leadingCache   = new ConcurrentHashMap<>();
+    private static final Map<String,String> trailingCache  = new ConcurrentHashMap<>();
+    private static final Map<String,String> bothCache      = new ConcurrentHashMap<>();
 
     /**
      * Generates a uniform context with forward slashes removing any consecutive slashes.
@@ -47,11 +51,77 @@ public abstract class ContextUtil {
      * @author Ktt Development
      */
     public static String getContext(final String context, final boolean leadingSlash, final boolean trailingSlash){
-        final String linSlash = forwardSlashRegex.matcher(context).replaceAll("/");
-        final String strippedSlash = stripSlashRegex.matcher(linSlash).replaceAll("");
-        return strippedSlash.length() == 0
-            ? leadingSlash || trailingSlash ? "/" : ""
-            : (leadingSlash ? "/" : "") + strippedSlash + (trailingSlash ? "/" : "");
+        final Map<String,String> contexts = leadingSlash ? (trailingSlash ? bothCache : leadingCache) : (trailingSlash ? trailingCache : cache);
+        final String cached = contexts.get(context);
+        if(cached != null)
+            return cached;
+
+        final String uniform = uniformContext(context, leadingSlash, trailingSlash);
+        if(contexts.size() >= cacheSize)
+            contexts.clear();
+        contexts.put(context, uniform);
+        return uniform;
+    }
+
+    // replaces consecutive forward slashes and any back slashes with a single forward slash, then removes surrounding slashes and whitespace
+    private static String uniformContext(final String context, final boolean leadingSlash, final boolean trailingSlash){
+        final int len = context.length();
+
+        // only build a new string if slashes need to be replaced
+        boolean replace = false;
+        for(int i = 0; i < len && !replace; i++){
+            final char ch = context.charAt(i);
+            replace = ch == '\\' || (ch == '/' && i + 1 < len && context.charAt(i + 1) == '/');
+        }
+
+        final CharSequence linSlash;
+        if(replace){
+            final StringBuilder OUT = new StringBuilder(len);
+            for(int i = 0; i < len; i++){
+                final char ch = context.charAt(i);
+                if(ch == '\\'){
+                    while(i + 1 < len && context.charAt(i + 1) == '\\') i++;
+                    OUT.append('/');
+                }else if(ch == '/'){
+                    while(i + 1 < len && context.charAt(i + 1) == '/') i++;
+                    OUT.append('/');
+                }else{
+                    OUT.append(ch);
+                }
+            }
+            linSlash = OUT;
+        }else{
+            linSlash = context;
+        }
+
+        // leading whitespace then slashes, trailing slashes then whitespace
+        final int end = linSlash.length();
+        int start = 0;
+        while(start < end && isWhitespace(linSlash.charAt(start))) start++;
+        while(start < end && linSlash.charAt(start) == '/') start++;
+
+        int stop = end;
+        while(stop > start && isWhitespace(linSlash.charAt(stop - 1))) stop--;
+        while(stop > start && linSlash.charAt(stop - 1) == '/') stop--;
+
+        if(start == stop)
+            return leadingSlash || trailingSlash ? "/" : "";
+
+        // return the original context if it is already uniform
+        if(!replace
+            && start == (leadingSlash ? 1 : 0)
+            && stop == end - (trailingSlash ? 1 : 0)
+            && (!leadingSlash || context.charAt(0) == '/')
+            && (!trailingSlash || context.charAt(end - 1) == '/')
+        )
+            return context;
+
+        return (leadingSlash ? "/" : "") + linSlash.subSequence(start, stop) + (trailingSlash ? "/" : "");
+    }
+
+    // matches the regex whitespace class \s
+    private static boolean isWhitespace(final char ch){
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
     }
 
     /**
@@ -70,9 +140,9 @@ public abstract class ContextUtil {
         final StringBuilder OUT = new StringBuilder();
 
         for(final String context : contexts)
-            OUT.append(getContext(context, true, false));
+            OUT.append(uniformContext(context, true, false));
 
-        return getContext(OUT.toString(), leadingSlash, trailingSlash);
+        return uniformContext(OUT.toString(), leadingSlash, trailingSlash);
     }
 
 }
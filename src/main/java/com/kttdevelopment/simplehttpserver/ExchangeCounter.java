@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the exchanges that are being handled so the server can drain them when stopping. Applications do not use this class.
+ *
+ * @see SimpleHttpServer#stop(int)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+final class ExchangeCounter {
+
+    private final AtomicInteger active = new AtomicInteger(0);
+    private volatile boolean draining = false;
+
+    /**
+     * Marks the start of an exchange.
+     *
+     * @return if the server is draining
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean enter(){
+        active.incrementAndGet();
+        return draining;
+    }
+
+    /**
+     * Marks the end of an exchange.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void exit(){
+        if(active.decrementAndGet() == 0 && draining)
+            synchronized(this){
+                notifyAll();
+            }
+    }
+
+    /**
+     * Returns the amount of exchanges being handled.
+     *
+     * @return active exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final int getActive(){
+        return active.get();
+    }
+
+    /**
+     * Waits until there are no more active exchanges or until the timeout elapses.
+     *
+     * @param timeoutMillis maximum time to wait in milliseconds
+     * @return if all exchanges completed
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final synchronized boolean drain(final long timeoutMillis){
+        draining = true;
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining;
+        while(active.get() > 0 && (remaining = deadline - System.currentTimeMillis()) > 0){
+            try{
+                wait(remaining);
+            }catch(final InterruptedException ignored){
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return active.get() == 0;
+    }
+
+    @Override
+    public String toString(){
+        return
+            "ExchangeCounter"   + '{' +
+            "active"            + '=' +     active      + ", " +
+            "draining"          + '=' +     draining    +
+            '}';
+    }
+
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Divides a pool of threads between classes of exchanges by weight instead of arrival order. Each exchange is sorted into a class, such as by context, header or session, and waits in that class's queue. Threads take from the queues by weighted fair queuing, so a class with twice the weight of another is served twice as often while both have exchanges waiting, and an idle class does not save up its share. <br>
+ * An exchange that has waited longer than the starvation timeout is served before any other, so low weight classes still make progress when high weight classes are always busy. Exchanges whose class is unknown go to the <code>default</code> class, which has a weight of 1 unless added. Stopping a server does not close its scheduler, since it may be shared.
+ *
+ * @see SimpleHttpServer#setScheduler(FairScheduler)
+ * @see Bulkhead
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class FairScheduler implements Closeable {
+
+    /**
+     * The class for exchanges that are not sorted into any other class.
+     */
+    public static final String DEFAULT_CLASS = "default";
+
+    private static final AtomicInteger schedulers = new AtomicInteger(0);
+
+    private final Function<HttpExchange,String> classifier;
+    private final long starvationTimeout;
+    private final Map<String,Queue> classes = new LinkedHashMap<>();
+    private final Queue[] queues;
+    private final Queue defaultQueue;
+    private final Thread[] threads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double virtualTime = 0; // guarded by lock
+    private int queued = 0; // guarded by lock
+    private boolean closed = false; // guarded by lock
+
+    private FairScheduler(final Builder builder){
+        classifier          = builder.classifier;
+        starvationTimeout   = builder.starvationTimeout;
+        builder.classes.forEach((name, limits) -> classes.put(name, new Queue(name, limits[0], limits[1])));
+        classes.putIfAbsent(DEFAULT_CLASS, new Queue(DEFAULT_CLASS, 1, -1));
+        queues              = classes.values().toArray(new Queue[0]);
+        defaultQueue        = classes.get(DEFAULT_CLASS);
+
+        final String name = "FairScheduler-" + schedulers.incrementAndGet() + '-';
+        threads = new Thread[builder.threads];
+        for(int i = 0; i < threads.length; i++){
+            threads[i] = new Thread(this::run, name + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    private static final class Queue {
+
+        private final String name;
+        private final int weight;
+        private final int maxQueued;
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>(); // guarded by lock
+        private double virtualTime = 0; // guarded by lock
+
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder starved = new LongAdder();
+        private final LongAdder waitTime = new LongAdder();
+        private final ContextRecorder recorder = new ContextRecorder();
+
+        private Queue(final String name, final int weight, final int maxQueued){
+            this.name       = name;
+            this.weight     = weight;
+            this.maxQueued  = maxQueued;
+        }
+
+    }
+
+    private static final class Task {
+
+        private final Queue queue;
+        private final HttpExchange exchange;
+        private final HttpHandler handler;
+        private final long enqueued;
+
+        private Task(final Queue queue, final HttpExchange exchange, final HttpHandler handler, final long enqueued){
+            this.queue      = queue;
+            this.exchange   = exchange;
+            this.handler    = handler;
+            this.enqueued   = enqueued;
+        }
+
+    }
+
+//
+
+    /**
+     * Queues an exchange in its class. If the class queue is full the exchange is counted as rejected and should be sent {@link Bulkhead#reject(HttpExchange)}.
+     *
+     * @param exchange exchange to process
+     * @param handler handler to run on the scheduler
+     * @return if the exchange was queued
+     *
+     * @see Bulkhead#reject(HttpExchange)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean execute(final HttpExchange exchange, final HttpHandler handler){
+        String name;
+        try{
+            name = classifier.apply(exchange);
+        }catch(final RuntimeException ignored){
+            name = null;
+        }
+        final Queue queue = name != null ? classes.getOrDefault(name, defaultQueue) : defaultQueue;
+
+        lock.lock();
+        try{
+            if(!closed && (queue.maxQueued < 0 || queue.tasks.size() < queue.maxQueued)){
+                if(queue.tasks.isEmpty()) // an idle class does not keep the share it did not use
+                    queue.virtualTime = Math.max(queue.virtualTime, virtualTime);
+                queue.tasks.addLast(new Task(queue, exchange, handler, System.nanoTime()));
+                queued++;
+                available.signal();
+                return true;
+            }
+        }finally{
+            lock.unlock();
+        }
+
+        queue.rejected.increment();
+        return false;
+    }
+
+    private Task take() throws InterruptedException{
+        lock.lock();
+        try{
+            while(queued == 0){
+                if(closed)
+                    return null;
+                available.await();
+            }
+
+            Queue fair = null;
+            Queue oldest = null;
+            for(final Queue queue : queues){
+                if(queue.tasks.isEmpty())
+                    continue;
+                if(fair == null || queue.virtualTime < fair.virtualTime)
+                    fair = queue;
+                if(oldest == null || queue.tasks.peekFirst().enqueued - oldest.tasks.peekFirst().enqueued < 0)
+                    oldest = queue;
+            }
+
+            virtualTime = fair.virtualTime;
+            final Queue next;
+            if(starvationTimeout >= 0 && System.nanoTime() - oldest.tasks.peekFirst().enqueued > starvationTimeout && oldest != fair){
+                oldest.starved.increment();
+                next = oldest;
+            }else{
+                next = fair;
+            }
+            next.virtualTime += 1d / next.weight;
+            queued--;
+            return next.tasks.pollFirst();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    private void run(){
+        try{
+            Task task;
+            while((task = take()) != null){
+                final long start = System.nanoTime();
+                task.queue.waitTime.add(start - task.enqueued);
+                final ContextRecorder.CountingOutputStream OUT = new ContextRecorder.CountingOutputStream(task.exchange.getResponseBody());
+                task.exchange.setStreams(null, OUT);
+                try{
+                    task.handler.handle(task.exchange);
+                }catch(final IOException | RuntimeException ignored){
+                    task.exchange.close();
+                }finally{
+                    task.queue.recorder.record(task.exchange.getResponseCode(), OUT.getCount(), System.nanoTime() - task.enqueued);
+                }
+            }
+        }catch(final InterruptedException ignored){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting exchanges. Threads stop once the exchanges already queued are handled.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public final void close(){
+        lock.lock();
+        try{
+            closed = true;
+            available.signalAll();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+//
+
+    /**
+     * Returns a classifier that sorts exchanges by context.
+     *
+     * @return context classifier
+     *
+     * @see Builder#setClassifier(Function)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public static Function<HttpExchange,String> byContext(){
+        return exchange -> exchange.getHttpContext().getPath();
+    }
+
+    /**
+     * Returns a classifier that sorts exchanges by the value of a request header.
+     *
+     * @param header header name
+     * @return header classifier
+     *
+     * @see Builder#setClassifier(Function)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public static Function<HttpExchange,String> byHeader(final String header){
+        return exchange -> exchange.getRequestHeaders().getFirst(header);
+    }
+
+    /**
+     * Returns a classifier that sorts exchanges by their session.
+     *
+     * @param sessionHandler session handler
+     * @param classifier function that returns the class of a session
+     * @return session classifier
+     *
+     * @see HttpSession
+     * @see Builder#setClassifier(Function)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public static Function<HttpExchange,String> bySession(final HttpSessionHandler sessionHandler, final Function<HttpSession,String> classifier){
+        return exchange -> classifier.apply(sessionHandler.getSession(exchange));
+    }
+
+//
+
+    private Queue getQueue(final String name){
+        final Queue queue = classes.get(name);
+        if(queue == null)
+            throw new IllegalArgumentException("No class named " + name);
+        return queue;
+    }
+
+    /**
+     * Returns the names of the classes.
+     *
+     * @return class names
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final Set<String> getClasses(){
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * Returns the weight of a class.
+     *
+     * @param name class name
+     * @return weight
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getWeight(final String name){
+        return getQueue(name).weight;
+    }
+
+    /**
+     * Returns the amount of exchanges waiting in a class.
+     *
+     * @param name class name
+     * @return queued exchanges
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getQueued(final String name){
+        final Queue queue = getQueue(name);
+        lock.lock();
+        try{
+            return queue.tasks.size();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total amount of exchanges in a class that were rejected because its queue was full.
+     *
+     * @param name class name
+     * @return rejected exchanges
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getRejected(final String name){
+        return getQueue(name).rejected.sum();
+    }
+
+    /**
+     * Returns the total amount of exchanges in a class that were served ahead of their turn because they waited longer than the starvation timeout.
+     *
+     * @param name class name
+     * @return starved exchanges
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getStarved(final String name){
+        return getQueue(name).starved.sum();
+    }
+
+    /**
+     * Returns the total time exchanges in a class waited for a thread.
+     *
+     * @param name class name
+     * @return total wait time in nanoseconds
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTotalWaitTime(final String name){
+        return getQueue(name).waitTime.sum();
+    }
+
+    /**
+     * Returns the requests, response codes and latency of a class. Latency is measured from when the exchange was queued until its handler returned. Bytes written are not recorded.
+     *
+     * @param name class name
+     * @return class statistics, where the context is the class name
+     * @throws IllegalArgumentException if there is no class with the name
+     *
+     * @see ContextStatistics
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final ContextStatistics getStatistics(final String name){
+        return getQueue(name).recorder.getStatistics(name);
+    }
+
+    /**
+     * Returns how long an exchange can wait before it is served ahead of other classes.
+     *
+     * @return starvation timeout in milliseconds, or -1 if disabled
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getStarvationTimeout(){
+        return starvationTimeout < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(starvationTimeout);
+    }
+
+    /**
+     * Returns the amount of threads exchanges are handled on.
+     *
+     * @return threads
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getThreads(){
+        return threads.length;
+    }
+
+    @Override
+    public String toString(){
+        final StringBuilder OUT = new StringBuilder();
+        lock.lock();
+        try{
+            for(final Queue queue : queues)
+                OUT.append(OUT.length() == 0 ? "" : ", ").append(queue.name).append('=').append(queue.weight).append('/').append(queue.tasks.size());
+        }finally{
+            lock.unlock();
+        }
+        return
+            "FairScheduler"         + '{' +
+            "threads"               + '=' +     threads.length          + ", " +
+            "starvationTimeout"     + '=' +     getStarvationTimeout()  + ", " +
+            "classes"               + '=' +     '[' + OUT + ']'         +
+            '}';
+    }
+
+//
+
+    /**
+     * Builds a fair scheduler.
+     *
+     * @see FairScheduler
+     * @since 4.5.0
+     * @version 4.5.0
+     * @author Ktt Development
+     */
+    public static class Builder {
+
+        private final int threads;
+        private Function<HttpExchange,String> classifier = exchange -> null;
+        private long starvationTimeout = TimeUnit.SECONDS.toNanos(1);
+        private final Map<String,int[]> classes = new LinkedHashMap<>();
+
+        /**
+         * Creates a builder for a scheduler with a number of threads.
+         *
+         * @param threads amount of threads exchanges are handled on
+         * @throws IllegalArgumentException if threads is not positive
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public Builder(final int threads){
+            if(threads <= 0)
+                throw new IllegalArgumentException("Threads must be positive");
+            this.threads = threads;
+        }
+
+        /**
+         * Sets how exchanges are sorted into classes. Exchanges are put in the default class if the classifier returns null or a class that was not added.
+         *
+         * @param classifier function that returns the class name of an exchange
+         * @return builder
+         *
+         * @see FairScheduler#byContext()
+         * @see FairScheduler#byHeader(String)
+         * @see FairScheduler#bySession(HttpSessionHandler, Function)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder setClassifier(final Function<HttpExchange,String> classifier){
+            this.classifier = Objects.requireNonNull(classifier);
+            return this;
+        }
+
+        /**
+         * Sets how long an exchange can wait before it is served ahead of other classes. The default is 1 second.
+         *
+         * @param starvationTimeout starvation timeout in milliseconds, or -1 to disable
+         * @return builder
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder setStarvationTimeout(final long starvationTimeout){
+            this.starvationTimeout = starvationTimeout < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(starvationTimeout);
+            return this;
+        }
+
+        /**
+         * Adds a class with an unlimited queue.
+         *
+         * @param name class name
+         * @param weight share of threads relative to other classes
+         * @return builder
+         * @throws IllegalArgumentException if the weight is not positive
+         *
+         * @see #addClass(String, int, int)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder addClass(final String name, final int weight){
+            return addClass(name, weight, -1);
+        }
+
+        /**
+         * Adds a class.
+         *
+         * @param name class name
+         * @param weight share of threads relative to other classes
+         * @param maxQueued maximum amount of exchanges waiting in the class, or -1 for unlimited
+         * @return builder
+         * @throws IllegalArgumentException if the weight is not positive
+         *
+         * @see #addClass(String, int)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder addClass(final String name, final int weight, final int maxQueued){
+            if(weight <= 0)
+                throw new IllegalArgumentException("Weight must be positive");
+            classes.put(Objects.requireNonNull(name), new int[]{weight, maxQueued});
+            return this;
+        }
+
+        /**
+         * Creates the scheduler and starts its threads.
+         *
+         * @return fair scheduler
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final FairScheduler build(){
+            return new FairScheduler(this);
+        }
+
+    }
+
+}
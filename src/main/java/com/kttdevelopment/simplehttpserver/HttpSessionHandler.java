@@ -22,17 +22,21 @@ import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class assigns {@link HttpSession} to every client.
  *
  * @since 03.03.00
- * @version 03.05.00
+ * @version 4.5.0
  * @author Ktt Development
  */
 public class HttpSessionHandler {
 
-    private final Map<String,HttpSession> sessions = Collections.synchronizedMap(new HashMap<>());
+    // ids assigned before giving up, in case assignSessionID keeps returning ids in use
+    private static final int maxAttempts = 16;
+
+    private final Map<String,HttpSession> sessions = new ConcurrentHashMap<>();
 
     private final String cookie;
 
@@ -59,7 +63,7 @@ public class HttpSessionHandler {
     }
 
     /**
-     * Assigns a session id to a client. It is important to make sure duplicate ids do not occur.
+     * Assigns a session id to a client. Ids that are already in use are assigned again, up to 16 times.
      *
      * @param exchange http exchange
      * @return session id
@@ -67,11 +71,8 @@ public class HttpSessionHandler {
      * @since 03.03.00
      * @author Ktt Development
      */
-    public synchronized String assignSessionID(final HttpExchange exchange){
-        String id;
-        do id = UUID.randomUUID().toString();
-            while(sessions.containsKey(id));
-        return id;
+    public String assignSessionID(final HttpExchange exchange){
+        return UUID.randomUUID().toString();
     }
 
     private String getSetSession(final Headers headers){
@@ -87,13 +88,13 @@ public class HttpSessionHandler {
      *
      * @param exchange http exchange
      * @return session associated with the exchange
+     * @throws IllegalStateException if {@link #assignSessionID(HttpExchange)} only returned ids that are in use
      *
      * @since 03.03.00
      * @author Ktt Development
      */
     public final HttpSession getSession(final HttpExchange exchange){
         final String sessionId;
-        final HttpSession session;
 
         @SuppressWarnings("SpellCheckingInspection")
         final String rcookies = exchange.getRequestHeaders().getFirst("Cookie");
@@ -110,70 +111,87 @@ public class HttpSessionHandler {
         final String setSession = getSetSession(exchange.getResponseHeaders());
         sessionId = setSession != null ? setSession : cookies.get(cookie);
 
-        synchronized(this){
-            if(!sessions.containsKey(sessionId)){
-                session = new HttpSession() {
-                    private final String sessionID;
-                    private final long creationTime;
-                    private long lastAccessTime;
-
-                    {
-                        sessionID = assignSessionID(exchange);
-                        creationTime = System.currentTimeMillis();
-                        lastAccessTime = creationTime;
-                        sessions.put(sessionID, this);
-                    }
-
-                    @Override
-                    public final String getSessionID(){
-                        return sessionID;
-                    }
-
-                    //
-
-                    @Override
-                    public final long getCreationTime(){
-                        return creationTime;
-                    }
-
-                    @Override
-                    public final long getLastAccessTime(){
-                        return lastAccessTime;
-                    }
-
-                    @Override
-                    public synchronized final void updateLastAccessTime(){
-                        lastAccessTime = System.currentTimeMillis();
-                    }
-
-                    //
-
-                    @Override
-                    public String toString(){
-                        return
-                            "HttpSession"       + '{' +
-                            "sessionID"         + '=' + '\'' + sessionID + '\'' + ", " +
-                            "creationTime"      + '=' +     creationTime        + ", " +
-                            "lastAccessTime"    + '=' +     lastAccessTime      +
-                            '}';
-                    }
-
-                };
-
-                final SimpleHttpCookie out =
-                    new SimpleHttpCookie.Builder(cookie, session.getSessionID())
-                        .setPath("/")
-                        .setHttpOnly(true)
-                        .build();
-                exchange.getResponseHeaders().add("Set-Cookie", out.toCookieHeaderString());
-                sessions.put(session.getSessionID(), session);
-            }else{
-                session = sessions.get(sessionId);
-            }
-        }
+        final HttpSession existing = sessionId != null ? sessions.get(sessionId) : null;
+        if(existing != null)
+            return existing;
+
+        HttpSession session;
+        int attempts = 0;
+        do{
+            if(++attempts > maxAttempts)
+                throw new IllegalStateException("Failed to assign a unique session id after " + maxAttempts + " attempts");
+            session = new Session(assignSessionID(exchange));
+        }while(sessions.putIfAbsent(session.getSessionID(), session) != null);
+
+        final SimpleHttpCookie out =
+            new SimpleHttpCookie.Builder(cookie, session.getSessionID())
+                .setPath("/")
+                .setHttpOnly(true)
+                .build();
+        exchange.getResponseHeaders().add("Set-Cookie", out.toCookieHeaderString());
         return session;
     }
 
+    private static final class Session extends HttpSession {
+
+        private final String sessionID;
+        private final long creationTime;
+        private volatile long lastAccessTime;
+
+        private Session(final String sessionID){
+            this.sessionID  = sessionID;
+            creationTime    = System.currentTimeMillis();
+            lastAccessTime  = creationTime;
+        }
+
+        @Override
+        public final String getSessionID(){
+            return sessionID;
+        }
+
+        //
+
+        @Override
+        public final long getCreationTime(){
+            return creationTime;
+        }
+
+        @Override
+        public final long getLastAccessTime(){
+            return lastAccessTime;
+        }
+
+        @Override
+        public final void updateLastAccessTime(){
+            lastAccessTime = System.currentTimeMillis();
+        }
+
+        //
+
+        @Override
+        public String toString(){
+            return
+                "HttpSession"       + '{' +
+                "sessionID"         + '=' + '\'' + sessionID + '\'' + ", " +
+                "creationTime"      + '=' +     creationTime        + ", " +
+                "lastAccessTime"    + '=' +     lastAccessTime      +
+                '}';
+        }
+
+    }
+
+    /**
+     * Returns the amount of sessions that have been assigned.
+     *
+     * @return session count
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getSessionCount(){
+        return sessions.size();
+    }
+
     @Override
     public String toString(){
         return
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A log-linear histogram of nanosecond values. Each power of two is split into 16 linear buckets, so recorded values are accurate to within 1/16 (about 6%). Counts are striped by thread to avoid contention; stripes are allocated when a thread first records to them. Applications do not use this class.
+ *
+ * @see ContextStatistics
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS    = 4;
+    private static final int SUB_BUCKETS        = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE      = 39; // about 9 minutes in nanoseconds
+
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    final void record(final long nanos){
+        final int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        AtomicLongArray counts = stripes.get(stripe);
+        if(counts == null && !stripes.compareAndSet(stripe, null, counts = new AtomicLongArray(BUCKETS)))
+            counts = stripes.get(stripe);
+        counts.incrementAndGet(indexOf(nanos));
+    }
+
+    final long[] getCounts(){
+        final long[] counts = new long[BUCKETS];
+        for(int i = 0; i < STRIPES; i++){
+            final AtomicLongArray stripe = stripes.get(i);
+            if(stripe != null)
+                for(int j = 0; j < BUCKETS; j++)
+                    counts[j] += stripe.get(j);
+        }
+        return counts;
+    }
+
+//
+
+    static int indexOf(final long value){
+        if(value < SUB_BUCKETS)
+            return (int) Math.max(0, value);
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if(magnitude > MAX_MAGNITUDE)
+            return BUCKETS - 1;
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValueAt(final int index){
+        if(index < SUB_BUCKETS)
+            return index;
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
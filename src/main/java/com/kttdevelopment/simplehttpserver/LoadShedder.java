@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sheds exchanges that waited too long for an executor thread, based on CoDel (controlled delay). The time from when an exchange is dispatched to the executor until a thread starts it is its sojourn time. This does not include reading the request, since new connections are dispatched before their request has arrived. When the smallest sojourn time over an interval exceeds the target, the server is overloaded and a queue has built up that is not draining. While overloaded, exchanges that waited longer than the target are sent <code>503 Service Unavailable</code> instead of being handled, and waiting exchanges are started newest first so that requests whose clients are still waiting are served before stale ones. Otherwise only exchanges that waited longer than the interval are shed. <br>
+ * For contexts with a {@link Bulkhead}, or when the server has a {@link FairScheduler}, the sojourn time also includes the time spent waiting in their queue. Only the server executor starts exchanges newest first.
+ *
+ * @see SimpleHttpServer#setLoadShedder(LoadShedder)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class LoadShedder {
+
+    private static final ThreadLocal<long[]> sojourns = ThreadLocal.withInitial(() -> new long[]{-1});
+
+    private final long target;
+    private final long interval;
+    private volatile boolean lifo = true;
+
+    private final AtomicLong intervalEnd = new AtomicLong(System.nanoTime());
+    private final AtomicLong minSojourn = new AtomicLong(Long.MAX_VALUE);
+    private volatile long lastMinSojourn = 0;
+    private volatile boolean overloaded = false;
+
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder waiting = new LongAdder();
+
+    /**
+     * Creates a load shedder with a target of 5 milliseconds and an interval of 100 milliseconds.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public LoadShedder(){
+        this(5, 100);
+    }
+
+    /**
+     * Creates a load shedder.
+     *
+     * @param target sojourn time in milliseconds that exchanges should not exceed while overloaded
+     * @param interval how long in milliseconds the sojourn time must stay above the target to be overloaded, and the sojourn time after which exchanges are always shed
+     * @throws IllegalArgumentException if the target is not positive or the interval is less than the target
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public LoadShedder(final long target, final long interval){
+        if(target <= 0)
+            throw new IllegalArgumentException("Target must be positive");
+        if(interval < target)
+            throw new IllegalArgumentException("Interval must not be less than the target");
+        this.target     = TimeUnit.MILLISECONDS.toNanos(target);
+        this.interval   = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+//
+
+    /**
+     * Returns if the exchange on the current thread should be shed.
+     *
+     * @return if the exchange should be shed
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean shed(){
+        final long[] current = sojourns.get();
+        final long sojourn = current[0];
+        if(sojourn < 0) // not dispatched through this shedder
+            return false;
+        current[0] = -1;
+        final long now = System.nanoTime();
+
+        final long end = intervalEnd.get();
+        if(now - end >= 0 && intervalEnd.compareAndSet(end, now + interval)){
+            final long min = minSojourn.getAndSet(Long.MAX_VALUE);
+            if(min != Long.MAX_VALUE){
+                lastMinSojourn = min;
+                overloaded = min > target;
+            }else{ // no exchanges
+                overloaded = false;
+            }
+        }
+        minSojourn.accumulateAndGet(sojourn, Math::min);
+
+        if(sojourn > (overloaded ? target : interval)){
+            shed.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the sojourn time of the exchange on the current thread to a handler that will run on another thread, such as a {@link Bulkhead}. The time until that handler starts is added to the sojourn time.
+     *
+     * @param handler handler to run on another thread
+     * @return handler that records the sojourn time before running, or the same handler if the exchange was not dispatched through a load shedder
+     *
+     * @see #shed()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    static HttpHandler carry(final HttpHandler handler){
+        final long[] current = sojourns.get();
+        final long sojourn = current[0];
+        if(sojourn < 0)
+            return handler;
+        current[0] = -1;
+        final long dispatched = System.nanoTime() - sojourn;
+        return exchange -> {
+            final long[] next = sojourns.get();
+            next[0] = System.nanoTime() - dispatched;
+            try{
+                handler.handle(exchange);
+            }finally{
+                next[0] = -1;
+            }
+        };
+    }
+
+    /**
+     * Sends <code>503 Service Unavailable</code> to an exchange that was shed.
+     *
+     * @param exchange exchange to process
+     * @throws IOException internal server error
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void reject(final HttpExchange exchange) throws IOException{
+        try{
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(503, -1);
+        }finally{
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns an executor that records how long exchanges waited to start and starts the newest exchange first while overloaded.
+     *
+     * @param executor executor that runs exchanges, or null to run them on the calling thread
+     * @return shedding executor
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final Executor wrap(final Executor executor){
+        return new SheddingExecutor(executor != null ? executor : Runnable::run);
+    }
+
+    private final class SheddingExecutor implements Executor {
+
+        private final Executor executor;
+        private final Deque<Task> tasks = new ConcurrentLinkedDeque<>();
+
+        private SheddingExecutor(final Executor executor){
+            this.executor = executor;
+        }
+
+        @Override
+        public final void execute(final Runnable command){
+            final Task task = new Task(command, System.nanoTime());
+            tasks.addLast(task);
+            waiting.increment();
+            try{
+                executor.execute(this::runNext); // one run for every task queued
+            }catch(final RejectedExecutionException e){
+                if(tasks.removeLastOccurrence(task))
+                    waiting.decrement();
+                throw e;
+            }
+        }
+
+        private void runNext(){
+            final Task task = overloaded && lifo ? tasks.pollLast() : tasks.pollFirst();
+            if(task == null)
+                return;
+            waiting.decrement();
+            final long[] current = sojourns.get();
+            current[0] = System.nanoTime() - task.dispatched;
+            try{
+                task.command.run();
+            }finally{
+                current[0] = -1;
+            }
+        }
+
+    }
+
+    private static final class Task {
+
+        private final Runnable command;
+        private final long dispatched;
+
+        private Task(final Runnable command, final long dispatched){
+            this.command    = command;
+            this.dispatched = dispatched;
+        }
+
+    }
+
+//
+
+    /**
+     * Sets if waiting exchanges are started newest first while overloaded. This is true by default.
+     *
+     * @param lifo if the newest exchange is started first while overloaded
+     *
+     * @see #isLifo()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void setLifo(final boolean lifo){
+        this.lifo = lifo;
+    }
+
+    /**
+     * Returns if waiting exchanges are started newest first while overloaded.
+     *
+     * @return if the newest exchange is started first while overloaded
+     *
+     * @see #setLifo(boolean)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final boolean isLifo(){
+        return lifo;
+    }
+
+    /**
+     * Returns the target sojourn time.
+     *
+     * @return target in milliseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTarget(){
+        return TimeUnit.NANOSECONDS.toMillis(target);
+    }
+
+    /**
+     * Returns the interval the smallest sojourn time is measured over.
+     *
+     * @return interval in milliseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getInterval(){
+        return TimeUnit.NANOSECONDS.toMillis(interval);
+    }
+
+    /**
+     * Returns if the smallest sojourn time over the last interval exceeded the target.
+     *
+     * @return if the server is overloaded
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final boolean isOverloaded(){
+        return overloaded;
+    }
+
+    /**
+     * Returns the smallest sojourn time over the last interval that had exchanges.
+     *
+     * @return smallest sojourn time in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getMinSojourn(){
+        return lastMinSojourn;
+    }
+
+    /**
+     * Returns the total amount of exchanges that were shed.
+     *
+     * @return shed exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getShed(){
+        return shed.sum();
+    }
+
+    /**
+     * Returns the amount of exchanges waiting for an executor thread.
+     *
+     * @return waiting exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getWaiting(){
+        return waiting.sum();
+    }
+
+    @Override
+    public String toString(){
+        return
+            "LoadShedder"   + '{' +
+            "target"        + '=' +     getTarget()     + ", " +
+            "interval"      + '=' +     getInterval()   + ", " +
+            "lifo"          + '=' +     lifo            + ", " +
+            "overloaded"    + '=' +     overloaded      + ", " +
+            "minSojourn"    + '=' +     lastMinSojourn  + ", " +
+            "shed"          + '=' +     getShed()       +
+            '}';
+    }
+
+}
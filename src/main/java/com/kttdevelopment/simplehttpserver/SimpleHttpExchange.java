@@ -34,7 +34,7 @@ import java.util.Map;
  *
  * @see HttpExchange
  * @since 02.00.00
- * @version 4.0.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 @SuppressWarnings("SpellCheckingInspection")
@@ -223,6 +223,17 @@ public abstract class SimpleHttpExchange {
      */
     public abstract boolean hasGet();
 
+    /**
+     * Returns the path parameters captured by a {@link com.kttdevelopment.simplehttpserver.handler.RouteHandler}.
+     *
+     * @return path parameters, empty if the exchange was not routed
+     *
+     * @see com.kttdevelopment.simplehttpserver.handler.RouteHandler
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract Map<String,String> getPathParameters();
+
 //
 
     /**
@@ -326,6 +337,7 @@ public abstract class SimpleHttpExchange {
      * @param key name of cookie to set
      * @param value value of cookie
      * @throws IllegalArgumentException if the cookie name is reserved by the server
+     * @throws IllegalStateException if the response headers were already sent
      *
      * @see SimpleHttpCookie
      * @see #setCookie(SimpleHttpCookie)
@@ -341,6 +353,7 @@ public abstract class SimpleHttpExchange {
      *
      * @param cookie cookie to set
      * @throws IllegalArgumentException if the cookie name is reserved by the server
+     * @throws IllegalStateException if the response headers were already sent
      *
      * @see SimpleHttpCookie
      * @see #setCookie(String, String)
@@ -368,6 +381,7 @@ public abstract class SimpleHttpExchange {
      * @param code response code
      * @param length the size of the response in bytes
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #getResponseHeaders()
      * @see java.net.HttpURLConnection
@@ -381,6 +395,7 @@ public abstract class SimpleHttpExchange {
      *
      * @param responseCode response code
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(byte[])
@@ -405,6 +420,7 @@ public abstract class SimpleHttpExchange {
      *
      * @param response response in bytes
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -430,6 +446,7 @@ public abstract class SimpleHttpExchange {
      * @param response response in bytes
      * @param gzip if response should be gziped before sending
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -455,6 +472,7 @@ public abstract class SimpleHttpExchange {
      * @param response response in bytes
      * @param responseCode response code
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -481,6 +499,7 @@ public abstract class SimpleHttpExchange {
      * @param responseCode response code
      * @param gzip if response should be gziped before sending it to the client
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -505,6 +524,7 @@ public abstract class SimpleHttpExchange {
      *
      * @param response response
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -530,6 +550,7 @@ public abstract class SimpleHttpExchange {
      * @param response response
      * @param gzip if response should be gziped before sending it to the client
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -555,6 +576,7 @@ public abstract class SimpleHttpExchange {
      * @param response response
      * @param responseCode response code
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -581,6 +603,7 @@ public abstract class SimpleHttpExchange {
      * @param responseCode response code
      * @param gzip if the response should be gziped before sending it to the client
      * @throws IOException internal server error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -605,6 +628,7 @@ public abstract class SimpleHttpExchange {
      *
      * @param file file to send
      * @throws IOException internal server error or file read error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -630,6 +654,7 @@ public abstract class SimpleHttpExchange {
      * @param file file to send
      * @param gzip if the response should be gziped before sending it to the client
      * @throws IOException internal server error or file read error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -655,6 +680,7 @@ public abstract class SimpleHttpExchange {
      * @param file file to send
      * @param responseCode response code
      * @throws IOException internal server error or file read error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -681,6 +707,7 @@ public abstract class SimpleHttpExchange {
      * @param responseCode response code
      * @param gzip if the response should be gziped before sending it to the client
      * @throws IOException internal server error or file read error
+     * @throws IllegalStateException if the response was already sent or the exchange is closed
      *
      * @see #sendResponseHeaders(int, long)
      * @see #send(int)
@@ -703,7 +730,7 @@ public abstract class SimpleHttpExchange {
 //
 
     /**
-     * Closes the exchange between the client and server.
+     * Closes the exchange between the client and server. Closing an exchange more than once has no effect.
      *
      * @since 02.00.00
      * @author Ktt Development
@@ -18,6 +18,9 @@
 
 package com.kttdevelopment.simplehttpserver;
 
+import com.kttdevelopment.simplehttpserver.handler.RouteHandler;
+import com.kttdevelopment.simplehttpserver.jfr.ExchangeEvent;
+import com.kttdevelopment.simplehttpserver.jfr.ResponseHeadersEvent;
 import com.sun.net.httpserver.*;
 
 import java.io.*;
@@ -25,17 +28,19 @@ import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
 /**
- * Implementation for {@link SimpleHttpExchange}. Applications do not use this class.
+ * Implementation for {@link SimpleHttpExchange}. Applications do not use this class. <br>
+ * The response moves through the states pending, headers sent, streaming and closed using an atomic state instead of locks; sending a response twice or after the exchange is closed throws an {@link IllegalStateException}.
  *
  * @see SimpleHttpExchange
  * @since 02.00.00
- * @version 4.2.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 @SuppressWarnings("SpellCheckingInspection")
@@ -58,6 +63,8 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     private final Map<String,String> getMap;
     private final boolean hasGet;
 
+    private final Map<String,String> pathParameters;
+
     private final String rawPost;
     @SuppressWarnings("rawtypes")
     private final Map postMap;
@@ -68,6 +75,13 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
 
     private final OutputStream outputStream;
 
+    private static final int PENDING        = 0;
+    private static final int HEADERS_SENT   = 1;
+    private static final int STREAMING      = 2;
+    private static final int CLOSED         = 3;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
     @SuppressWarnings("FieldCanBeLocal")
     private final Function<String,Map<String,String>> parseWwwFormEnc = s -> {
         final LinkedHashMap<String,String> OUT = new LinkedHashMap<>();
@@ -102,6 +116,8 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     SimpleHttpExchangeImpl(final HttpExchange exchange){
+        final ExchangeEvent event = new ExchangeEvent();
+        event.begin();
         httpServer = (httpContext = exchange.getHttpContext()).getServer();
         httpExchange = exchange;
     //
@@ -117,6 +133,7 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     //
         hasGet = (rawGet = URI.getRawQuery()) != null;
         getMap = hasGet ? Collections.unmodifiableMap(parseWwwFormEnc.apply(rawGet)) : new HashMap<>();
+        pathParameters = RouteHandler.getPathParameters(exchange);
 
     //
         String OUT;
@@ -209,6 +226,14 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
         }
         cookies = Collections.unmodifiableMap(cookie_buffer);
         outputStream = exchange.getResponseBody();
+
+        event.end();
+        if(event.shouldCommit()){
+            event.context   = httpContext.getPath();
+            event.method    = requestMethod;
+            event.path      = URI.getPath();
+            event.commit();
+        }
     }
 
     @Override
@@ -284,6 +309,11 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
         return hasGet;
     }
 
+    @Override
+    public final Map<String,String> getPathParameters(){
+        return pathParameters;
+    }
+
 //
 
     @Override
@@ -326,12 +356,15 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     }
 
     @Override
-    public synchronized final void setCookie(final String key, final String value){
+    public final void setCookie(final String key, final String value){
         setCookie(new SimpleHttpCookie.Builder(key, value).build());
     }
 
     @Override
-    public synchronized final void setCookie(final SimpleHttpCookie cookie){
+    public final void setCookie(final SimpleHttpCookie cookie){
+        final int current = state.get();
+        if(current != PENDING)
+            throw new IllegalStateException("Cookie can not be set after " + (current == CLOSED ? "the exchange was closed" : "response headers were sent"));
         final String cstring = cookie.toCookieHeaderString();
         getResponseHeaders().add("Set-Cookie", cstring);
     }
@@ -346,17 +379,28 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     //
 
     @Override
-    public synchronized final void sendResponseHeaders(final int code, final long length) throws IOException{
+    public final void sendResponseHeaders(final int code, final long length) throws IOException{
+        if(!state.compareAndSet(PENDING, HEADERS_SENT))
+            throw new IllegalStateException(state.get() == CLOSED ? "Response can not be sent after the exchange was closed" : "Response headers have already been sent");
+        final ResponseHeadersEvent event = new ResponseHeadersEvent();
+        event.begin();
         httpExchange.sendResponseHeaders(code, length);
+        event.end();
+        if(event.shouldCommit()){
+            event.context   = httpContext.getPath();
+            event.status    = code;
+            event.length    = length;
+            event.commit();
+        }
     }
 
     @Override
-    public synchronized final void send(final int responseCode) throws IOException{
+    public final void send(final int responseCode) throws IOException{
         sendResponseHeaders(responseCode, 0);
     }
 
     @Override
-    public synchronized final void send(final byte[] response) throws IOException{
+    public final void send(final byte[] response) throws IOException{
         send(response, HttpURLConnection.HTTP_OK, false);
     }
 
@@ -366,7 +410,7 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     }
 
     @Override
-    public synchronized final void send(final byte[] response, final int responseCode) throws IOException {
+    public final void send(final byte[] response, final int responseCode) throws IOException {
         send(response, responseCode, false);
     }
 
@@ -377,22 +421,24 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
             httpExchange.getResponseHeaders().set("Content-Encoding","gzip");
             httpExchange.getResponseHeaders().set("Connection","keep-alive");
             sendResponseHeaders(responseCode, 0);
-            try(GZIPOutputStream OUT = new GZIPOutputStream(httpExchange.getResponseBody())){
-                OUT.write(response);
-                OUT.finish();
-                OUT.flush();
-            }
         }else{
             sendResponseHeaders(responseCode, response.length);
-            try(final OutputStream OUT = httpExchange.getResponseBody()){
-                OUT.write(response);
-                OUT.flush();
-            }
+        }
+        if(!state.compareAndSet(HEADERS_SENT, STREAMING))
+            throw new IllegalStateException("Response can not be sent after the exchange was closed");
+
+        final OutputStream OUT = gzip ? new GZIPOutputStream(httpExchange.getResponseBody()) : httpExchange.getResponseBody();
+        try{
+            OUT.write(response);
+            OUT.flush();
+        }finally{
+            if(state.getAndSet(CLOSED) == STREAMING) // closing the response body completes the exchange
+                OUT.close();
         }
     }
 
     @Override
-    public synchronized final void send(final String response) throws IOException{
+    public final void send(final String response) throws IOException{
         send(response.getBytes(StandardCharsets.UTF_8), HttpURLConnection.HTTP_OK, false);
     }
 
@@ -402,7 +448,7 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     }
 
     @Override
-    public synchronized final void send(final String response, final int responseCode) throws IOException{
+    public final void send(final String response, final int responseCode) throws IOException{
         send(response.getBytes(StandardCharsets.UTF_8), responseCode, false);
     }
 
@@ -434,7 +480,9 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     //
 
     @Override
-    public synchronized final void close(){
+    public final void close(){
+        if(state.getAndSet(CLOSED) == CLOSED)
+            return;
         try{
             outputStream.close();
         }catch(final IOException ignored){ }
@@ -449,7 +497,7 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
     }
 
     @Override
-    public synchronized final void setAttribute(final String name, final Object value){
+    public final void setAttribute(final String name, final Object value){
         httpExchange.setAttribute(name, value);
     }
 
@@ -474,6 +522,7 @@ final class SimpleHttpExchangeImpl extends SimpleHttpExchange {
             "rawGet"                + '=' + '\'' + rawGet + '\''    + ", " +
             "getMap"                + '=' + getMap                  + ", " +
             "hasGet"                + '=' + hasGet                  + ", " +
+            "pathParameters"        + '=' + pathParameters          + ", " +
             "rawPost"               + '=' + '\'' + rawPost + '\''   + ", " +
             "postMap"               + '=' + postMap                 + ", " +
             "hasPost"               + '=' + hasPost                 + ", " +
@@ -35,7 +35,7 @@ import java.util.concurrent.Executor;
  * @see SimpleHttpsServer
  * @see SimpleHttpHandler
  * @since 02.00.00
- * @version 03.05.08
+ * @version 4.5.0
  * @author Ktt Development
  */
 @SuppressWarnings("SpellCheckingInspection")
@@ -210,6 +210,7 @@ public abstract class SimpleHttpServer {
     /**
      * Sets the server's executor. <br>
      * For unlimited simultaneous threading use {@link java.util.concurrent.Executors#newCachedThreadPool()}; for limited simultaneous threading use {@link java.util.concurrent.Executors#newFixedThreadPool(int)}. <br>
+     * The server has a single dispatcher thread that only accepts connections; the request line and headers are read on the executor. Without an executor every request is read and handled on the dispatcher thread, so an executor with at least as many threads as processors is required for request parsing to scale across cores.
      *
      * @param executor server executor
      *
@@ -232,6 +233,79 @@ public abstract class SimpleHttpServer {
      */
     public abstract Executor getExecutor();
 
+//
+
+    /**
+     * Sets the maximum amount of requests a single connection can make before the server closes it. A value of <code>-1</code> means unlimited requests.
+     * <br>
+     * Pipelined requests are read from the connection buffer and handled without waiting for the client.
+     *
+     * @param requests maximum requests per connection
+     *
+     * @see #getMaxRequestsPerConnection()
+     * @see #getConnectionStatistics()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setMaxRequestsPerConnection(final int requests);
+
+    /**
+     * Returns the maximum amount of requests a single connection can make before the server closes it.
+     *
+     * @return maximum requests per connection
+     *
+     * @see #setMaxRequestsPerConnection(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract int getMaxRequestsPerConnection();
+
+    /**
+     * Sets how long in seconds an idle connection is kept alive. This is sent to the client using the <code>Keep-Alive</code> header. A value of <code>-1</code> means the default timeout.
+     * <br>
+     * The native server will always close connections that are idle longer than the <code>sun.net.httpserver.idleInterval</code> system property (30 seconds by default).
+     *
+     * @param seconds keep-alive timeout in seconds
+     *
+     * @see #getKeepAliveTimeout()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setKeepAliveTimeout(final int seconds);
+
+    /**
+     * Returns how long in seconds an idle connection is kept alive.
+     *
+     * @return keep-alive timeout in seconds
+     *
+     * @see #setKeepAliveTimeout(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract int getKeepAliveTimeout();
+
+    /**
+     * Returns the connection reuse statistics for the server. Requests and connections are only tracked while a maximum requests per connection or keep-alive timeout is set.
+     *
+     * @return connection statistics
+     *
+     * @see ConnectionStatistics
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract ConnectionStatistics getConnectionStatistics();
+
+    /**
+     * Returns the amount of exchanges that are currently being handled.
+     *
+     * @return active exchanges
+     *
+     * @see #stop(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract int getActiveExchanges();
+
 //
 
     /**
@@ -373,6 +447,33 @@ public abstract class SimpleHttpServer {
      */
     public abstract HttpContext createContext(final String context, final HttpHandler handler, final Authenticator authenticator);
 
+    //
+
+    /**
+     * Creates a context mapped to a specified {@link HttpHandler} with an {@link Authenticator} whose exchanges are handled on a {@link Bulkhead}.
+     * <br>
+     * * {@link HttpServer} often does not throw an exception for duplicate contexts. <a href="https://github.com/Ktt-Development/simplehttpserver/issues/86">#86</a>
+     *
+     * @param context the context
+     * @param handler the handler
+     * @param authenticator authenticator, or null for none
+     * @param bulkhead bulkhead to handle exchanges on, or null to use the server executor
+     * @return the http context associated with the context
+     * @throws IllegalArgumentException if the context is invalid or taken*
+     * @throws NullPointerException if the context is null
+     *
+     * @see HttpContext
+     * @see HttpHandler
+     * @see Authenticator
+     * @see Bulkhead
+     * @see #createContext(String, HttpHandler, Authenticator)
+     * @see #removeContext(String)
+     * @see #removeContext(HttpContext)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract HttpContext createContext(final String context, final HttpHandler handler, final Authenticator authenticator, final Bulkhead bulkhead);
+
 //
 
     /**
@@ -434,6 +535,148 @@ public abstract class SimpleHttpServer {
      */
     public abstract Map<HttpContext,HttpHandler> getContexts();
 
+    /**
+     * Sets if request statistics should be recorded for each context. Statistics are not recorded by default.
+     *
+     * @param enabled if statistics should be recorded
+     *
+     * @see #isContextStatisticsEnabled()
+     * @see #getContextStatistics()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setContextStatisticsEnabled(final boolean enabled);
+
+    /**
+     * Returns if request statistics are being recorded for each context.
+     *
+     * @return if statistics are recorded
+     *
+     * @see #setContextStatisticsEnabled(boolean)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract boolean isContextStatisticsEnabled();
+
+    /**
+     * Returns the request statistics for a context.
+     *
+     * @param context context
+     * @return context statistics or null if the context does not exist
+     *
+     * @see ContextStatistics
+     * @see #setContextStatisticsEnabled(boolean)
+     * @see #getContextStatistics(HttpContext)
+     * @see #getContextStatistics()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract ContextStatistics getContextStatistics(final String context);
+
+    /**
+     * Returns the request statistics for a context.
+     *
+     * @param context http context
+     * @return context statistics or null if the context does not exist
+     *
+     * @see HttpContext
+     * @see ContextStatistics
+     * @see #setContextStatisticsEnabled(boolean)
+     * @see #getContextStatistics(String)
+     * @see #getContextStatistics()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract ContextStatistics getContextStatistics(final HttpContext context);
+
+    /**
+     * Returns the request statistics for every context.
+     *
+     * @return map of contexts and their statistics
+     *
+     * @see HttpContext
+     * @see ContextStatistics
+     * @see #setContextStatisticsEnabled(boolean)
+     * @see #getContextStatistics(String)
+     * @see #getContextStatistics(HttpContext)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract Map<HttpContext,ContextStatistics> getContextStatistics();
+
+    /**
+     * Sets the access log that every exchange is written to. The log is not closed when the server stops.
+     *
+     * @param accessLog access log or null to stop logging
+     *
+     * @see AccessLog
+     * @see #getAccessLog()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setAccessLog(final AccessLog accessLog);
+
+    /**
+     * Returns the access log that every exchange is written to.
+     *
+     * @return access log or null if there is none
+     *
+     * @see AccessLog
+     * @see #setAccessLog(AccessLog)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract AccessLog getAccessLog();
+
+    /**
+     * Sets the load shedder that drops exchanges which waited too long for an executor thread. Must be set before the server is started.
+     *
+     * @param loadShedder load shedder or null to handle every exchange
+     * @throws IllegalStateException if the server is already started
+     *
+     * @see LoadShedder
+     * @see #getLoadShedder()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setLoadShedder(final LoadShedder loadShedder);
+
+    /**
+     * Returns the load shedder that drops exchanges which waited too long for an executor thread.
+     *
+     * @return load shedder or null if there is none
+     *
+     * @see LoadShedder
+     * @see #setLoadShedder(LoadShedder)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract LoadShedder getLoadShedder();
+
+    /**
+     * Sets the scheduler that divides threads between classes of exchanges by weight. Exchanges are handed off to the scheduler once their context is known; contexts with a {@link Bulkhead} use the bulkhead instead.
+     *
+     * @param scheduler fair scheduler or null to handle exchanges on the server executor
+     *
+     * @see FairScheduler
+     * @see #getScheduler()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract void setScheduler(final FairScheduler scheduler);
+
+    /**
+     * Returns the scheduler that divides threads between classes of exchanges by weight.
+     *
+     * @return fair scheduler or null if there is none
+     *
+     * @see FairScheduler
+     * @see #setScheduler(FairScheduler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public abstract FairScheduler getScheduler();
+
     //
 
     /**
@@ -476,7 +719,7 @@ public abstract class SimpleHttpServer {
     public abstract void start();
 
     /**
-     * Stops the server and all active requests.
+     * Stops the server and all active requests. Handlers that implement {@link java.io.Closeable}, like {@link com.kttdevelopment.simplehttpserver.handler.SSEHandler}, are closed.
      *
      * @see #start()
      * @see #stop(int)
@@ -486,12 +729,13 @@ public abstract class SimpleHttpServer {
     public abstract void stop();
 
     /**
-     * Stops the server with a delay for remaining requests.
+     * Stops the server with a delay for remaining requests. The server stops accepting new connections immediately and returns as soon as all active exchanges complete, or closes them once the delay elapses. Exchanges waiting in a {@link Bulkhead} or {@link FairScheduler} count as active. Exchanges handled while stopping are sent with a <code>Connection: close</code> header. Handlers that implement {@link java.io.Closeable}, like {@link com.kttdevelopment.simplehttpserver.handler.SSEHandler}, are closed first so streams end cleanly.
      *
-     * @param delay delay until server stops all active requests
+     * @param delay maximum delay in seconds until server stops all active requests
      *
      * @see #start()
      * @see #stop()
+     * @see #getActiveExchanges()
      * @since 02.00.00
      * @author Ktt Development
      */
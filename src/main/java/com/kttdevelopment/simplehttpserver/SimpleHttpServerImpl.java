@@ -19,19 +19,23 @@
 package com.kttdevelopment.simplehttpserver;
 
 import com.kttdevelopment.simplehttpserver.handler.RootHandler;
+import com.kttdevelopment.simplehttpserver.jfr.*;
 import com.sun.net.httpserver.*;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation for {@link SimpleHttpServer}. Applications do not use this class.
  *
  * @see SimpleHttpServer
  * @since 02.00.00
- * @version 03.05.08
+ * @version 4.5.0
  * @author Ktt Development
  */
 @SuppressWarnings("SpellCheckingInspection")
@@ -39,9 +43,19 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
 
     private final HttpServer server = HttpServer.create();
 
-    private HttpSessionHandler sessionHandler;
+    private volatile HttpSessionHandler sessionHandler;
 
-    private final Map<HttpContext,HttpHandler> contexts = new HashMap<>();
+    private final Map<HttpContext,HttpHandler> contexts = new ConcurrentHashMap<>();
+    private final Map<String,HttpContext> paths = new ConcurrentHashMap<>(); // contexts indexed by normalized path
+    private final Map<HttpContext,ContextRecorder> recorders = new ConcurrentHashMap<>();
+    private volatile boolean recordStatistics = false;
+    private volatile AccessLog accessLog;
+    private volatile LoadShedder loadShedder;
+    private volatile FairScheduler scheduler;
+    private volatile Executor executor;
+
+    private final ConnectionTracker connectionTracker = new ConnectionTracker();
+    private final ExchangeCounter exchangeCounter = new ExchangeCounter();
 
     private boolean running = false;
 
@@ -68,8 +82,18 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
     }
 
     private void handle(final HttpExchange exchange){
-        if(sessionHandler != null)
+        connectionTracker.handle(exchange);
+        final HttpSessionHandler sessionHandler = this.sessionHandler;
+        if(sessionHandler != null){
+            final SessionEvent event = new SessionEvent();
+            event.begin();
             sessionHandler.getSession(exchange).updateLastAccessTime();
+            event.end();
+            if(event.shouldCommit()){
+                event.context = exchange.getHttpContext().getPath();
+                event.commit();
+            }
+        }
     }
 
 //
@@ -116,16 +140,48 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
 
     @Override
     public synchronized final void setExecutor(final Executor executor){
-        server.setExecutor(executor);
+        final LoadShedder loadShedder = this.loadShedder;
+        server.setExecutor(loadShedder != null ? loadShedder.wrap(executor) : executor);
+        this.executor = executor;
     }
 
     @Override
     public final Executor getExecutor(){
-        return server.getExecutor();
+        return executor;
+    }
+
+    @Override
+    public final void setMaxRequestsPerConnection(final int requests){
+        connectionTracker.setMaxRequestsPerConnection(requests);
+    }
+
+    @Override
+    public final int getMaxRequestsPerConnection(){
+        return connectionTracker.getMaxRequestsPerConnection();
+    }
+
+    @Override
+    public final void setKeepAliveTimeout(final int seconds){
+        connectionTracker.setKeepAliveTimeout(seconds);
+    }
+
+    @Override
+    public final int getKeepAliveTimeout(){
+        return connectionTracker.getKeepAliveTimeout();
+    }
+
+    @Override
+    public final ConnectionStatistics getConnectionStatistics(){
+        return connectionTracker.getStatistics();
     }
 
     @Override
-    public synchronized final void setHttpSessionHandler(final HttpSessionHandler sessionHandler){
+    public final int getActiveExchanges(){
+        return exchangeCounter.getActive();
+    }
+
+    @Override
+    public final void setHttpSessionHandler(final HttpSessionHandler sessionHandler){
         this.sessionHandler = sessionHandler;
     }
 
@@ -165,19 +221,87 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
 
     @Override
     public synchronized final HttpContext createContext(final String context, final HttpHandler handler, final Authenticator authenticator){
+        return createContext(context, handler, authenticator, null);
+    }
+
+    @Override
+    public synchronized final HttpContext createContext(final String context, final HttpHandler handler, final Authenticator authenticator, final Bulkhead bulkhead){
         final String ct = ContextUtil.getContext(context, true, false);
         if(!ct.equals("/") && handler instanceof RootHandler)
             throw new IllegalArgumentException("RootHandler can only be used at the root '/' context");
 
+        final ContextRecorder recorder = new ContextRecorder();
         final HttpHandler wrapper = exchange -> {
-            handle(exchange);
-            handler.handle(exchange);
+            final ResponseBodyEvent bodyEvent = new ResponseBodyEvent();
+            bodyEvent.begin();
+            final boolean record = recordStatistics;
+            final AccessLog log = accessLog;
+            final long start = record || log != null ? System.nanoTime() : 0;
+            final ContextRecorder.CountingOutputStream OUT = record || log != null || bodyEvent.isEnabled() ? new ContextRecorder.CountingOutputStream(exchange.getResponseBody()) : null;
+            if(OUT != null)
+                exchange.setStreams(null, OUT);
+            try{
+                handle(exchange);
+                final LoadShedder shedder = loadShedder;
+                if(shedder != null && shedder.shed()){
+                    shedder.reject(exchange);
+                    return;
+                }
+                final HandlerEvent event = new HandlerEvent();
+                event.begin();
+                try{
+                    handler.handle(exchange);
+                }finally{
+                    event.end();
+                    if(event.shouldCommit()){
+                        event.context = ct;
+                        event.method  = exchange.getRequestMethod();
+                        event.status  = exchange.getResponseCode();
+                        event.commit();
+                    }
+                }
+            }finally{
+                final long end = record || log != null ? System.nanoTime() : 0;
+                if(record)
+                    recorder.record(exchange.getResponseCode(), OUT.getCount(), end - start);
+                if(log != null)
+                    log.log(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(), exchange.getProtocol(), exchange.getRemoteAddress().getAddress(), exchange.getResponseCode(), OUT.getCount(), end - start);
+                bodyEvent.end();
+                if(OUT != null && bodyEvent.shouldCommit()){
+                    bodyEvent.context = ct;
+                    bodyEvent.status  = exchange.getResponseCode();
+                    bodyEvent.bytes   = OUT.getCount();
+                    bodyEvent.commit();
+                }
+                exchangeCounter.exit();
+            }
         };
 
         final HttpContext hc = server.createContext(ct);
 
-        hc.setHandler(wrapper);
+        hc.setHandler(exchange -> {
+            if(exchangeCounter.enter()) // server is stopping; close keep-alive connections after this exchange
+                exchange.getResponseHeaders().set("Connection", "close");
+            final FairScheduler scheduler = this.scheduler;
+            if(bulkhead == null && scheduler == null){
+                wrapper.handle(exchange);
+                return;
+            }
+            // counted while queued so stopping waits for it; the wrapper exits once it runs
+            final HttpHandler handoff = LoadShedder.carry(wrapper); // include the queue time in the sojourn time
+            boolean queued = false;
+            try{
+                queued = bulkhead != null ? bulkhead.execute(exchange, handoff) : scheduler.execute(exchange, handoff);
+            }finally{
+                if(!queued)
+                    exchangeCounter.exit(); // before responding so the client never sees the exchange still active
+            }
+            if(!queued)
+                Bulkhead.reject(exchange);
+        });
         contexts.put(hc, handler);
+        paths.put(ct, hc);
+        recorders.put(hc, recorder);
 
         if(authenticator != null)
             hc.setAuthenticator(authenticator);
@@ -190,16 +314,16 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
     @SuppressWarnings("CaughtExceptionImmediatelyRethrown")
     @Override
     public synchronized final void removeContext(final String context){
+        final String ct = ContextUtil.getContext(context, true, false);
         try{
-            server.removeContext(ContextUtil.getContext(context, true, false));
+            server.removeContext(ct);
         }catch(final IllegalArgumentException e){
             throw e;
         }finally{
-            for(final HttpContext hc : contexts.keySet()){
-                if(hc.getPath().equalsIgnoreCase(ContextUtil.getContext(context, true, false))){
-                    contexts.remove(hc);
-                    break;
-                }
+            final HttpContext hc = paths.remove(ct);
+            if(hc != null){
+                contexts.remove(hc);
+                recorders.remove(hc);
             }
         }
     }
@@ -207,6 +331,8 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
     @Override
     public synchronized final void removeContext(final HttpContext context){
         contexts.remove(context);
+        paths.remove(context.getPath(), context);
+        recorders.remove(context);
         server.removeContext(context);
     }
 
@@ -214,10 +340,8 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
 
     @Override
     public final HttpHandler getContextHandler(final String context){
-        for(final Map.Entry<HttpContext,HttpHandler> entry : contexts.entrySet())
-            if(entry.getKey().getPath().equals(ContextUtil.getContext(context, true, false)))
-                return entry.getValue();
-        return null;
+        final HttpContext hc = paths.get(ContextUtil.getContext(context, true, false));
+        return hc != null ? contexts.get(hc) : null;
     }
 
     @Override
@@ -230,15 +354,75 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
         return new HashMap<>(contexts);
     }
 
+    @Override
+    public final void setContextStatisticsEnabled(final boolean enabled){
+        recordStatistics = enabled;
+    }
+
+    @Override
+    public final boolean isContextStatisticsEnabled(){
+        return recordStatistics;
+    }
+
+    @Override
+    public final ContextStatistics getContextStatistics(final String context){
+        final HttpContext hc = paths.get(ContextUtil.getContext(context, true, false));
+        return hc != null ? getContextStatistics(hc) : null;
+    }
+
+    @Override
+    public final ContextStatistics getContextStatistics(final HttpContext context){
+        final ContextRecorder recorder = recorders.get(context);
+        return recorder != null ? recorder.getStatistics(context) : null;
+    }
+
+    @Override
+    public final Map<HttpContext,ContextStatistics> getContextStatistics(){
+        final Map<HttpContext,ContextStatistics> statistics = new HashMap<>();
+        recorders.forEach((context, recorder) -> statistics.put(context, recorder.getStatistics(context)));
+        return statistics;
+    }
+
+    @Override
+    public final void setAccessLog(final AccessLog accessLog){
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public final AccessLog getAccessLog(){
+        return accessLog;
+    }
+
+    @Override
+    public synchronized final void setLoadShedder(final LoadShedder loadShedder){
+        server.setExecutor(loadShedder != null ? loadShedder.wrap(executor) : executor);
+        this.loadShedder = loadShedder;
+    }
+
+    @Override
+    public final LoadShedder getLoadShedder(){
+        return loadShedder;
+    }
+
+    @Override
+    public final void setScheduler(final FairScheduler scheduler){
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public final FairScheduler getScheduler(){
+        return scheduler;
+    }
+
     //
 
     @Override
-    public synchronized final String getRandomContext(){
+    public final String getRandomContext(){
         return getRandomContext("");
     }
 
     @Override
-    public synchronized final String getRandomContext(final String context){
+    public final String getRandomContext(final String context){
         String targetContext;
 
         final String head = context.isEmpty() ? "" : ContextUtil.getContext(context, true, false);
@@ -268,7 +452,26 @@ final class SimpleHttpServerImpl extends SimpleHttpServer {
     public synchronized final void stop(final int delay){
         if(running){
             running = false;
-            server.stop(delay);
+            for(final HttpHandler handler : contexts.values()) // end streams so their exchanges can complete
+                if(handler instanceof Closeable)
+                    try{
+                        ((Closeable) handler).close();
+                    }catch(final IOException ignored){ }
+
+            if(delay > 0){
+                // the native stop closes the listener immediately but always waits the full delay when no exchanges are active
+                final Thread listener = new Thread(() -> server.stop(delay));
+                listener.start();
+                exchangeCounter.drain(TimeUnit.SECONDS.toMillis(delay));
+                server.stop(0);
+                try{
+                    listener.join();
+                }catch(final InterruptedException ignored){
+                    Thread.currentThread().interrupt();
+                }
+            }else{
+                server.stop(0);
+            }
         }
     }
 
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Limits total connections to a limit that adjusts itself to the latency of the handler. <br>
+ * The time each connection takes is tracked as a short term and long term average. While the short term average stays close to the long term average the limit grows by its square root, allowing a small queue. When the short term average rises, meaning connections are waiting on each other, the limit is reduced by the ratio of the two averages. The limit only grows while at least half of it is in use, and the long term average is lowered when latency falls well below it, so the limit follows changes in load and in the handler itself. <br>
+ * Connection times are averaged over 10 millisecond windows and the limit is updated once per window by the connection that closes it, so completing connections do not wait on each other.
+ *
+ * @see HttpExchange
+ * @see ThrottledHandler
+ * @see ServerExchangeThrottler
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class AdaptiveThrottler extends ConnectionThrottler {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(10); // connection times are averaged into one sample per window
+    private static final double SHORT_WINDOW = 2d / (10 + 1);   // exponential average over 10 samples
+    private static final double LONG_WINDOW  = 2d / (600 + 1);  // exponential average over 600 samples
+    private static final double TOLERANCE = 1.5;    // short term latency allowed before the limit is reduced
+    private static final double SMOOTHING = 0.2;    // weight of each new limit
+
+    private final Map<HttpExchange,Long> started = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger(0);
+
+    private final int minLimit, maxLimit;
+
+    private volatile int limit;
+
+    // samples in the current window
+    private final LongAdder rttTotal = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAccumulator inflight = new LongAccumulator(Math::max, 0);
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    // only written by the connection that closes a window
+    private volatile double estimatedLimit;
+    private volatile double shortRtt = 0, longRtt = 0;
+
+    /**
+     * Creates an adaptive throttler starting at 20 connections, with a limit between 1 and 1000 connections.
+     *
+     * @see #AdaptiveThrottler(int, int, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public AdaptiveThrottler(){
+        this(20, 1, 1000);
+    }
+
+    /**
+     * Creates an adaptive throttler.
+     *
+     * @param initialLimit starting limit
+     * @param minLimit lowest limit
+     * @param maxLimit highest limit
+     * @throws IllegalArgumentException if the minimum limit is less than 1, or the initial limit is not between the minimum and maximum limit
+     *
+     * @see #AdaptiveThrottler()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public AdaptiveThrottler(final int initialLimit, final int minLimit, final int maxLimit){
+        if(minLimit < 1)
+            throw new IllegalArgumentException("Minimum limit must be at least 1");
+        if(initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("Initial limit must be between the minimum and maximum limit");
+
+        this.minLimit   = minLimit;
+        this.maxLimit   = maxLimit;
+        limit           = initialLimit;
+        estimatedLimit  = initialLimit;
+    }
+
+    @Override
+    final boolean addConnection(final HttpExchange exchange){
+        final int max = limit;
+        int current;
+        do{
+            if((current = connections.get()) >= max)
+                return false;
+        }while(!connections.compareAndSet(current, current + 1));
+
+        started.put(exchange, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    final void deleteConnection(final HttpExchange exchange){
+        final Long start = started.remove(exchange);
+        final int current = connections.getAndDecrement();
+        if(start != null){
+            final long now = System.nanoTime();
+            rttTotal.add(now - start);
+            samples.increment();
+            inflight.accumulate(current);
+
+            final long window = windowStart.get();
+            if(now - window >= WINDOW && windowStart.compareAndSet(window, now))
+                update();
+        }
+    }
+
+    private void update(){
+        final long count = samples.sumThenReset();
+        final long total = rttTotal.sumThenReset();
+        final long used = inflight.getThenReset();
+        if(count == 0)
+            return;
+        final double rtt = (double) total / count;
+
+        double shortRtt = this.shortRtt, longRtt = this.longRtt;
+        if(longRtt == 0){
+            shortRtt = longRtt = rtt;
+        }else{
+            shortRtt += (rtt - shortRtt) * SHORT_WINDOW;
+            longRtt  += (rtt - longRtt) * LONG_WINDOW;
+        }
+
+        if(longRtt / shortRtt > 2) // latency dropped; recover the long term average faster
+            longRtt *= 0.95;
+        this.shortRtt = shortRtt;
+        this.longRtt  = longRtt;
+
+        final double estimatedLimit = this.estimatedLimit;
+        final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        final double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if(next > estimatedLimit && used < estimatedLimit / 2) // limit is not being used; do not grow it
+            return;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * Returns the current connection limit.
+     *
+     * @param exchange exchange to process
+     * @return current limit
+     *
+     * @see #getLimit()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public final int getMaxConnections(final HttpExchange exchange){
+        return limit;
+    }
+
+    /**
+     * Returns the current connection limit.
+     *
+     * @return current limit
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getLimit(){
+        return limit;
+    }
+
+    /**
+     * Returns the amount of connections currently added.
+     *
+     * @return active connections
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getConnections(){
+        return connections.get();
+    }
+
+    /**
+     * Returns the short term average time a connection takes.
+     *
+     * @return short term average in nanoseconds, or 0 if no connections have completed
+     *
+     * @see #getLongRtt()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getShortRtt(){
+        return (long) shortRtt;
+    }
+
+    /**
+     * Returns the long term average time a connection takes.
+     *
+     * @return long term average in nanoseconds, or 0 if no connections have completed
+     *
+     * @see #getShortRtt()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getLongRtt(){
+        return (long) longRtt;
+    }
+
+    @Override
+    public String toString(){
+        return
+            "AdaptiveThrottler" + '{' +
+            "connections"       + '=' +     connections     + ", " +
+            "limit"             + '=' +     limit           + ", " +
+            "minLimit"          + '=' +     minLimit        + ", " +
+            "maxLimit"          + '=' +     maxLimit        + ", " +
+            "shortRtt"          + '=' +     getShortRtt()   + ", " +
+            "longRtt"           + '=' +     getLongRtt()    +
+            '}';
+    }
+
+}
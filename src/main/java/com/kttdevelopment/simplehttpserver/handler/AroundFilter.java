@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+/**
+ * A filter that wraps the handler of a {@link FilteredHandler}. The filter decides if and when the next filter or handler is run.
+ *
+ * @see FilteredHandler
+ * @see BeforeFilter
+ * @see AfterFilter
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+@FunctionalInterface
+public interface AroundFilter {
+
+    /**
+     * Runs the filter.
+     *
+     * @param exchange http exchange
+     * @param next next filter or handler
+     * @throws IOException internal failure
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    void around(final HttpExchange exchange, final HttpHandler next) throws IOException;
+
+}
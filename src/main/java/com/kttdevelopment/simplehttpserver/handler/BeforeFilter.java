@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * A filter that runs before the handler of a {@link FilteredHandler}. If the filter returns false the exchange is considered handled and no further filters or the handler are run.
+ *
+ * @see FilteredHandler
+ * @see AfterFilter
+ * @see AroundFilter
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+@FunctionalInterface
+public interface BeforeFilter {
+
+    /**
+     * Runs the filter.
+     *
+     * @param exchange http exchange
+     * @return if the exchange should continue to the handler
+     * @throws IOException internal failure
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    boolean before(final HttpExchange exchange) throws IOException;
+
+}
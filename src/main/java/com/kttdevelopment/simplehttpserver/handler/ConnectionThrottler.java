@@ -20,6 +20,8 @@ package com.kttdevelopment.simplehttpserver.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Determines how connections are handled by the {@link ThrottledHandler}.
  *
@@ -28,12 +30,16 @@ import com.sun.net.httpserver.HttpExchange;
  * @see ServerExchangeThrottler
  * @see SessionThrottler
  * @see ServerSessionThrottler
+ * @see AdaptiveThrottler
+ * @see RateThrottler
  * @since 03.03.00
- * @version 03.05.00
+ * @version 4.5.0
  * @author Ktt Development
  */
 abstract class ConnectionThrottler {
 
+    private final LongAdder rejected = new LongAdder();
+
     /**
      * Adds a connection to the pool.
      *
@@ -75,4 +81,28 @@ abstract class ConnectionThrottler {
      */
     public abstract int getMaxConnections(final HttpExchange exchange);
 
+    /**
+     * Counts a connection that was not added to the pool.
+     *
+     * @see #getRejectedConnections()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void countRejection(){
+        rejected.increment();
+    }
+
+    /**
+     * Returns the total amount of connections that were rejected because the pool was full.
+     *
+     * @return rejected connections
+     *
+     * @see ThrottledHandler
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getRejectedConnections(){
+        return rejected.sum();
+    }
+
 }
@@ -32,7 +32,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * @see FileHandler
  * @see FileEntry
  * @since 02.00.00
- * @version 4.3.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 @SuppressWarnings("SpellCheckingInspection")
@@ -42,6 +42,7 @@ class DirectoryEntry {
     private final FileHandlerAdapter adapter;
     private final ByteLoadingOption loadingOption;
     private final boolean isWalkthrough;
+    private final FileCacheCounter counter;
 
     private final Map<String,FileEntry> files = new ConcurrentHashMap<>(); // non liveload only
     private final Path directoryPath;
@@ -53,6 +54,7 @@ class DirectoryEntry {
      * @param adapter how to process the bytes in {@link #getBytes(String)}
      * @param loadingOption how to handle the initial file loading
      * @param isWalkthrough whether to use sub-directories or not
+     * @param counter counter for cache hits and misses
      * @throws UncheckedIOException failure to walk through directory or failure to start watch service
      *
      * @see FileBytesAdapter
@@ -60,11 +62,12 @@ class DirectoryEntry {
      * @since 03.05.00
      * @author Ktt Development
      */
-    DirectoryEntry(final File directory, final FileHandlerAdapter adapter, final ByteLoadingOption loadingOption, final boolean isWalkthrough){
+    DirectoryEntry(final File directory, final FileHandlerAdapter adapter, final ByteLoadingOption loadingOption, final boolean isWalkthrough, final FileCacheCounter counter){
         this.directory     = directory;
         this.adapter       = adapter;
         this.loadingOption = loadingOption;
         this.isWalkthrough = isWalkthrough;
+        this.counter       = counter;
 
         directoryPath      = directory.toPath();
 
@@ -93,7 +96,7 @@ class DirectoryEntry {
     private void addFile(final File file){
         files.put(
             ContextUtil.getContext(adapter.getName(file), true, false),
-            new FileEntry(file, adapter, loadingOption)
+            new FileEntry(file, adapter, loadingOption, counter)
         );
     }
 
@@ -102,7 +105,7 @@ class DirectoryEntry {
         final String relative = directoryPath.relativize(file.toPath().getParent()).toString(); // attach the relative path (parent) to the adapted file name
         files.put(
             ContextUtil.joinContexts(true, false, relative, adapter.getName(file)),
-            new FileEntry(file, adapter, loadingOption)
+            new FileEntry(file, adapter, loadingOption, counter)
         );
     }
 
@@ -189,8 +192,8 @@ class DirectoryEntry {
             final File file = getFile(path);
             return file != null && file.exists()
                 ? loadingOption != ByteLoadingOption.LIVELOAD // only add to files if not liveload
-                    ? files.put(context, new FileEntry(file, adapter, loadingOption))
-                    : new FileEntry(file, adapter, loadingOption)
+                    ? files.put(context, new FileEntry(file, adapter, loadingOption, counter))
+                    : new FileEntry(file, adapter, loadingOption, counter)
                 : null;
         }else if(!entry.getFile().exists()){ // remove entry if file no longer exists
             files.remove(context);
@@ -217,7 +220,10 @@ class DirectoryEntry {
         }else{
             try{
                 final File file = Objects.requireNonNull(getFile(path)); // check if file is allowed
-                return file.isFile() ? adapter.getBytes(file, Files.readAllBytes(file.toPath())) : null; // adapt bytes here
+                if(!file.isFile())
+                    return null;
+                counter.miss();
+                return adapter.getBytes(file, Files.readAllBytes(file.toPath())); // adapt bytes here
             }catch(final NullPointerException | IOException ignored){
                 return null;
             }
@@ -21,10 +21,6 @@ package com.kttdevelopment.simplehttpserver.handler;
 import com.sun.net.httpserver.HttpExchange;
 
 import java.net.InetAddress;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Limits connections per address to the server.
@@ -35,12 +31,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see SessionThrottler
  * @see ServerSessionThrottler
  * @since 03.05.00
- * @version 03.05.00
+ * @version 4.5.0
  * @author Ktt Development
  */
-public class ExchangeThrottler extends ConnectionThrottler {
-
-    private final Map<InetAddress,AtomicInteger> connections = new ConcurrentHashMap<>();
+public class ExchangeThrottler extends KeyedConnectionThrottler<InetAddress> {
 
     /**
      * Creates a throttler with limits on each exchange.
@@ -52,32 +46,12 @@ public class ExchangeThrottler extends ConnectionThrottler {
 
     @Override
     final boolean addConnection(final HttpExchange exchange){
-        final InetAddress address = exchange.getRemoteAddress().getAddress();
-        final int maxConn = getMaxConnections(exchange);
-
-        if(!connections.containsKey(address))
-            connections.put(address, new AtomicInteger(0));
-
-        final AtomicInteger conn = connections.get(address);
-
-        if(maxConn < 0){
-            conn.incrementAndGet();
-            return true;
-        }else{
-            final AtomicBoolean added = new AtomicBoolean(false);
-            conn.updateAndGet(operand -> {
-                if(operand < maxConn) added.set(true);
-                return operand < maxConn ? operand + 1 : operand;
-            });
-            return added.get();
-        }
+        return addClientConnection(exchange.getRemoteAddress().getAddress(), getMaxConnections(exchange));
     }
 
     @Override
     final void deleteConnection(final HttpExchange exchange){
-        final InetAddress address = exchange.getRemoteAddress().getAddress();
-        if(connections.containsKey(address))
-            connections.get(address).decrementAndGet();
+        deleteClientConnection(exchange.getRemoteAddress().getAddress());
     }
 
     @Override
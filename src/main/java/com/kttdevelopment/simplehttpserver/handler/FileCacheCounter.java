@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often a {@link FileHandler} served bytes from memory instead of reading the file. Applications do not use this class.
+ *
+ * @see FileEntry
+ * @see FileHandler#getCacheHits()
+ * @see FileHandler#getCacheMisses()
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+final class FileCacheCounter {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    final void hit(){
+        hits.increment();
+    }
+
+    final void miss(){
+        misses.increment();
+    }
+
+    final long getHits(){
+        return hits.sum();
+    }
+
+    final long getMisses(){
+        return misses.sum();
+    }
+
+    @Override
+    public String toString(){
+        return
+            "FileCacheCounter"  + '{' +
+            "hits"              + '=' +     hits    + ", " +
+            "misses"            + '=' +     misses  +
+            '}';
+    }
+
+}
@@ -18,6 +18,8 @@
 
 package com.kttdevelopment.simplehttpserver.handler;
 
+import com.kttdevelopment.simplehttpserver.jfr.FileCacheEvent;
+
 import java.io.*;
 import java.nio.file.*;
 import java.util.Arrays;
@@ -29,7 +31,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @see ByteLoadingOption
  * @see FileHandler
  * @since 02.00.00
- * @version 4.0.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 class FileEntry {
@@ -37,8 +39,10 @@ class FileEntry {
     private final File file;
     private final FileBytesAdapter adapter;
     private final ByteLoadingOption loadingOption;
+    private final FileCacheCounter counter;
 
     private byte[] bytes = null;
+    private volatile Tag tag = null; // entity tag of the loaded bytes
 
     private final AtomicLong lastModified = new AtomicLong();
     private final AtomicLong expiry = new AtomicLong(0); // cache only
@@ -50,29 +54,33 @@ class FileEntry {
      * @param file file to represent
      * @param bytesAdapter how to process the bytes in {@link #getBytes()}
      * @param loadingOption how to handle the initial file loading
+     * @param counter counter for cache hits and misses
      *
      * @see FileBytesAdapter
      * @see ByteLoadingOption
      * @since 03.05.00
      * @author Ktt Development
      */
-    FileEntry(final File file, final FileBytesAdapter bytesAdapter, final ByteLoadingOption loadingOption){
+    FileEntry(final File file, final FileBytesAdapter bytesAdapter, final ByteLoadingOption loadingOption, final FileCacheCounter counter){
         if(loadingOption == ByteLoadingOption.CACHELOAD && !(bytesAdapter instanceof CacheFileAdapter))
             throw new IllegalArgumentException("CacheLoad option must use a cache file adapter");
 
         this.file           = file;
         this.adapter        = bytesAdapter;
         this.loadingOption  = loadingOption;
+        this.counter        = counter;
         this.cacheTime      = bytesAdapter instanceof CacheFileAdapter ? ((CacheFileAdapter) bytesAdapter).getCacheTimeMillis() : -1;
 
         if(loadingOption != ByteLoadingOption.LIVELOAD && loadingOption != ByteLoadingOption.CACHELOAD){
+            final long modified = file.lastModified();
             try{
                 bytes = adapter.getBytes(file, Files.readAllBytes(file.toPath()));
             }catch(final Throwable ignored){
                 bytes = null;
             }
+            tag = Tag.of(bytes, modified);
             if(loadingOption != ByteLoadingOption.PRELOAD){
-                lastModified.set(file.lastModified());
+                lastModified.set(modified);
             }
         }
     }
@@ -108,6 +116,7 @@ class FileEntry {
             }catch(final Throwable ignored){
                 bytes = null;
             }
+            tag = Tag.of(bytes, lastModified.get());
     }
 
     /**
@@ -123,6 +132,7 @@ class FileEntry {
         else{
             lastModified.set(0);
             bytes = null;
+            tag = null;
         }
     }
 
@@ -136,23 +146,106 @@ class FileEntry {
      * @author Ktt Development
      */
     public final byte[] getBytes(){
+        final FileCacheEvent event = new FileCacheEvent();
+        event.begin();
+        String result;
+        byte[] bytes;
         switch(loadingOption){
             case MODLOAD:
             case CACHELOAD:
                 final long now = System.currentTimeMillis();
                 // update the file if it was modified or now exceeds the expiry time
-                if((loadingOption == ByteLoadingOption.CACHELOAD && now > expiry.getAndUpdate(was -> now + cacheTime)) || file.lastModified() != lastModified.get())
+                if((loadingOption == ByteLoadingOption.CACHELOAD && now > expiry.getAndUpdate(was -> now + cacheTime)) || file.lastModified() != lastModified.get()){
+                    counter.miss();
                     reloadBytes();
+                    result = "reload";
+                    bytes = this.bytes;
+                    break;
+                }
             case PRELOAD:
-                return bytes;
+                counter.hit();
+                result = "hit";
+                bytes = this.bytes;
+                break;
             default:
             case LIVELOAD:
+                counter.miss();
+                result = "miss";
                 try{
-                    return adapter.getBytes(file, Files.readAllBytes(file.toPath())); // read and adapt bytes
+                    bytes = adapter.getBytes(file, Files.readAllBytes(file.toPath())); // read and adapt bytes
                 }catch(final Throwable ignored){
-                    return null;
+                    bytes = null;
                 }
         }
+        event.end();
+        if(event.shouldCommit()){
+            event.file   = file.getPath();
+            event.result = result;
+            event.commit();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the entity tag for bytes returned by {@link #getBytes()}. The tag is only computed when the bytes are loaded, not on every request.
+     *
+     * @param bytes file bytes
+     * @return entity tag
+     *
+     * @see #getBytes()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final String getETag(final byte[] bytes){
+        final Tag tag = this.tag;
+        return tag != null && tag.bytes == bytes ? tag.etag : createETag(bytes);
+    }
+
+    /**
+     * Returns the last modified time of the file when the bytes returned by {@link #getBytes()} were loaded, so requests do not need to check the file.
+     *
+     * @param bytes file bytes
+     * @return last modified time
+     *
+     * @see #getBytes()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final long getLastModified(final byte[] bytes){
+        final Tag tag = this.tag;
+        return tag != null && tag.bytes == bytes ? tag.modified : file.lastModified();
+    }
+
+    /**
+     * Creates an entity tag from the length and hash of bytes.
+     *
+     * @param bytes bytes
+     * @return entity tag
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    static String createETag(final byte[] bytes){
+        return "\"" + Integer.toHexString(bytes.length) + '-' + Integer.toHexString(Arrays.hashCode(bytes)) + '"';
+    }
+
+    // bytes and their validators are replaced together so a reader never sees validators for other bytes
+    private static final class Tag {
+
+        private final byte[] bytes;
+        private final String etag;
+        private final long modified;
+
+        private Tag(final byte[] bytes, final long modified){
+            this.bytes      = bytes;
+            this.etag       = createETag(bytes);
+            this.modified   = modified;
+        }
+
+        private static Tag of(final byte[] bytes, final long modified){
+            return bytes != null ? new Tag(bytes, modified) : null;
+        }
+
     }
 
     /**
@@ -180,6 +273,19 @@ class FileEntry {
         return expiry.get();
     }
 
+    /**
+     * Returns the amount of bytes held in memory for the file.
+     *
+     * @return resident bytes
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final long getResidentBytes(){
+        final byte[] bytes = this.bytes;
+        return bytes != null ? bytes.length : 0;
+    }
+
 //
 
     @Override
@@ -25,6 +25,9 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.*;
+import java.time.temporal.ChronoField;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
@@ -36,14 +39,14 @@ import java.util.function.Consumer;
  * The <code>directoryName</code> parameter determines the directory's name. Add the files at the top level by keeping this field empty. <br>
  * The <code>loadingOption</code> parameter determines how files should be loaded (see {@link ByteLoadingOption}). <br>
  * The <code>walk</code> parameter determines if all the inner directories should be used.
- * The handler will returns data given by the {@link FileHandlerAdapter} unless overridden.
+ * The handler will returns data given by the {@link FileHandlerAdapter} unless overridden. Responses include an <code>ETag</code> and <code>Last-Modified</code> header so that clients can revalidate cached files with a <code>304 Not Modified</code> response.
  *
  * @see FileHandlerAdapter
  * @see ByteLoadingOption
  * @see SimpleHttpHandler
  * @see com.sun.net.httpserver.HttpHandler
  * @since 02.00.00
- * @version 4.1.0
+ * @version 4.5.0
  * @author Ktt Development
  */
 public class FileHandler implements SimpleHttpHandler {
@@ -53,6 +56,10 @@ public class FileHandler implements SimpleHttpHandler {
     private final Map<String,FileEntry> files = new ConcurrentHashMap<>();
     private final Map<String,DirectoryEntry> directories = new ConcurrentHashMap<>();
 
+    private final FileCacheCounter counter = new FileCacheCounter();
+
+    private final ThreadLocal<FileEntry> serving = new ThreadLocal<>(); // entry being handled so the default response can use its validators
+
     /**
      * Creates a file handler without a {@link FileHandlerAdapter}. This will use the files name and bytes.
      *
@@ -256,7 +263,7 @@ public class FileHandler implements SimpleHttpHandler {
         try{
             files.put(
                 ContextUtil.joinContexts(true, false, context, fileName),
-                new FileEntry(file, adapter, loadingOption)
+                new FileEntry(file, adapter, loadingOption, counter)
             );
         }catch(final UncheckedIOException ignored){ }
     }
@@ -803,7 +810,7 @@ public class FileHandler implements SimpleHttpHandler {
             final String target = ContextUtil.joinContexts(true, false, context, directoryName);
             directories.put(
                 target,
-                new DirectoryEntry(directory, adapter, loadingOption, walk)
+                new DirectoryEntry(directory, adapter, loadingOption, walk, counter)
             );
         }catch(final UncheckedIOException ignored){}
     }
@@ -894,6 +901,55 @@ public class FileHandler implements SimpleHttpHandler {
        removeDirectory(ContextUtil.joinContexts(true, false, context, getName(directory)));
     }
 
+//
+
+    /**
+     * Returns the amount of requests where the file was served from memory.
+     *
+     * @return cache hits
+     *
+     * @see #getCacheMisses()
+     * @see ByteLoadingOption
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getCacheHits(){
+        return counter.getHits();
+    }
+
+    /**
+     * Returns the amount of requests where the file had to be read from disk.
+     *
+     * @return cache misses
+     *
+     * @see #getCacheHits()
+     * @see ByteLoadingOption
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getCacheMisses(){
+        return counter.getMisses();
+    }
+
+    /**
+     * Returns the amount of file bytes currently held in memory.
+     *
+     * @return resident bytes
+     *
+     * @see ByteLoadingOption
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getResidentBytes(){
+        long total = 0;
+        for(final FileEntry entry : files.values())
+            total += entry.getResidentBytes();
+        for(final DirectoryEntry directory : directories.values())
+            for(final FileEntry entry : directory.getFiles().values())
+                total += entry.getResidentBytes();
+        return total;
+    }
+
 //
 
     private String getName(final File file){
@@ -908,7 +964,8 @@ public class FileHandler implements SimpleHttpHandler {
 
         if(files.containsKey(context)){ // exact file match
             final FileEntry entry = files.get(context);
-            handle(exchange, entry.getFile(), entry.getBytes());
+            final byte[] bytes = entry.getBytes();
+            serve(exchange, entry, bytes);
         }else{ // leading directory match
             String match = "";
             for(final String key : directories.keySet())
@@ -923,11 +980,12 @@ public class FileHandler implements SimpleHttpHandler {
 
                 final FileEntry entry = dir.getFileEntry(rel);
 
-                handle(
-                    exchange,
-                    entry == null ? dir.getFile(rel) : entry.getFile(),
-                    entry == null ? dir.getBytes(rel) : entry.getBytes()
-                );
+                if(entry == null){
+                    handle(exchange, dir.getFile(rel), dir.getBytes(rel));
+                }else{
+                    final byte[] bytes = entry.getBytes();
+                    serve(exchange, entry, bytes);
+                }
             }
         }
         exchange.close();
@@ -952,7 +1010,7 @@ public class FileHandler implements SimpleHttpHandler {
     }
 
     /**
-     * Handles a file and gives a response.
+     * Handles a file and gives a response. If the client already has the file cached a <code>304 Not Modified</code> response is sent instead.
      *
      * @param exchange the client information
      * @param source the file
@@ -963,7 +1021,73 @@ public class FileHandler implements SimpleHttpHandler {
      * @author Ktt Development
      */
     public void handle(final SimpleHttpExchange exchange, final File source, final byte[] bytes) throws IOException {
-        exchange.send(bytes, HttpURLConnection.HTTP_OK);
+        if(source != null && bytes != null && !isModified(exchange, source, bytes))
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+        else
+            exchange.send(bytes, HttpURLConnection.HTTP_OK);
+    }
+
+    private void serve(final SimpleHttpExchange exchange, final FileEntry entry, final byte[] bytes) throws IOException{
+        serving.set(entry);
+        try{
+            handle(exchange, entry.getFile(), bytes);
+        }finally{
+            serving.remove();
+        }
+    }
+
+    // IMF-fixdate, the preferred format (RFC 9110 §5.6.7)
+    private static final DateTimeFormatter IMF_FIXDATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ROOT);
+    // obsolete formats that recipients must still accept; two digit years are read as within the last 50 years
+    private static final DateTimeFormatter RFC_850 = new DateTimeFormatterBuilder()
+        .appendPattern("EEEE, dd-MMM-")
+        .appendValueReduced(ChronoField.YEAR, 2, 2, LocalDate.now(ZoneOffset.UTC).minusYears(50))
+        .appendPattern(" HH:mm:ss 'GMT'")
+        .toFormatter(Locale.US);
+    private static final DateTimeFormatter ASCTIME = DateTimeFormatter.ofPattern("EEE MMM ppd HH:mm:ss yyyy", Locale.ROOT);
+
+    // returns the date in milliseconds or -1 if it is not a valid HTTP date
+    private static long parseDate(final String date){
+        for(final DateTimeFormatter format : new DateTimeFormatter[]{IMF_FIXDATE, RFC_850, ASCTIME}){
+            try{
+                return LocalDateTime.parse(date.trim(), format).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }catch(final DateTimeParseException ignored){ }
+        }
+        return -1;
+    }
+
+    // sets the validators for the response and checks them against the conditional request headers
+    private boolean isModified(final SimpleHttpExchange exchange, final File source, final byte[] bytes){
+        // uses the validators computed when the entry loaded its bytes so requests do not hash or check the file
+        final FileEntry entry = serving.get();
+        final boolean loaded = entry != null && entry.getFile() == source;
+        final String etag = loaded ? entry.getETag(bytes) : FileEntry.createETag(bytes);
+        final long lastModified = (loaded ? entry.getLastModified(bytes) : source.lastModified()) / 1000 * 1000; // header dates only have second precision
+
+        exchange.getResponseHeaders().set("ETag", etag);
+        if(lastModified > 0)
+            exchange.getResponseHeaders().set("Last-Modified", IMF_FIXDATE.format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC)));
+
+        // only safe methods may be answered with not modified (RFC 9110 §13.1)
+        final String method = exchange.getRequestMethod();
+        if(!method.equals("GET") && !method.equals("HEAD"))
+            return true;
+
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if(ifNoneMatch != null){ // entity tags take precedence over dates
+            for(final String tag : ifNoneMatch.split(","))
+                if(tag.trim().equals("*") || tag.trim().replaceFirst("^W/", "").equals(etag))
+                    return false;
+            return true;
+        }
+
+        final String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if(ifModifiedSince != null && lastModified > 0){
+            final long since = parseDate(ifModifiedSince);
+            if(since != -1)
+                return lastModified > since;
+        }
+        return true;
     }
 
 //
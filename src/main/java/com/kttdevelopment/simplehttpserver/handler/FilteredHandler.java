@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A handler that runs filters around another handler. Filters are compiled once by a {@link Builder} into a single handler holding its filters in final arrays, instead of nesting a handler object for each filter. <br>
+ * For each exchange the {@link BeforeFilter}s run in order, then the {@link AroundFilter}s with the first added being outermost, then the handler, and finally the {@link AfterFilter}s in order.
+ * <pre>{@code
+ * HttpHandler handler = new FilteredHandler.Builder()
+ *     .before(exchange -> exchange.getRequestHeaders().containsKey("Authorization"))
+ *     .after(exchange -> log(exchange))
+ *     .build(handler);
+ * }</pre>
+ *
+ * @see BeforeFilter
+ * @see AfterFilter
+ * @see AroundFilter
+ * @see Builder
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class FilteredHandler implements HttpHandler {
+
+    private final BeforeFilter[] before;
+    private final AroundFilter[] around;
+    private final AfterFilter[] after;
+    private final HttpHandler handler;
+    private final HttpHandler next; // around filters compiled over the handler
+
+    private FilteredHandler(final BeforeFilter[] before, final AroundFilter[] around, final AfterFilter[] after, final HttpHandler handler){
+        this.before     = before;
+        this.around     = around;
+        this.after      = after;
+        this.handler    = handler;
+
+        HttpHandler next = handler;
+        for(int i = around.length - 1; i >= 0; i--)
+            next = new Around(around[i], next);
+        this.next = next;
+    }
+
+    /**
+     * Returns the handler that the filters run around.
+     *
+     * @return handler
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final HttpHandler getHandler(){
+        return handler;
+    }
+
+    @Override
+    public final void handle(final HttpExchange exchange) throws IOException{
+        for(final BeforeFilter filter : before)
+            if(!filter.before(exchange))
+                return;
+
+        if(after.length == 0){
+            next.handle(exchange);
+        }else{
+            Throwable thrown = null;
+            try{
+                next.handle(exchange);
+            }catch(final IOException | RuntimeException | Error e){
+                thrown = e;
+            }
+            for(final AfterFilter filter : after){
+                try{
+                    filter.after(exchange);
+                }catch(final IOException | RuntimeException | Error e){ // the first exception is thrown, later ones are attached to it
+                    if(thrown == null)
+                        thrown = e;
+                    else
+                        thrown.addSuppressed(e);
+                }
+            }
+            if(thrown instanceof IOException)
+                throw (IOException) thrown;
+            else if(thrown instanceof RuntimeException)
+                throw (RuntimeException) thrown;
+            else if(thrown instanceof Error)
+                throw (Error) thrown;
+        }
+    }
+
+    private static final class Around implements HttpHandler {
+
+        private final AroundFilter filter;
+        private final HttpHandler next;
+
+        private Around(final AroundFilter filter, final HttpHandler next){
+            this.filter = filter;
+            this.next   = next;
+        }
+
+        @Override
+        public final void handle(final HttpExchange exchange) throws IOException{
+            filter.around(exchange, next);
+        }
+
+    }
+
+//
+
+    @Override
+    public String toString(){
+        return
+            "FilteredHandler"   + '{' +
+            "before"            + '=' +     Arrays.toString(before)     + ", " +
+            "around"            + '=' +     Arrays.toString(around)     + ", " +
+            "after"             + '=' +     Arrays.toString(after)      + ", " +
+            "handler"           + '=' +     handler                     +
+            '}';
+    }
+
+    /**
+     * Builds a {@link FilteredHandler}.
+     *
+     * @see FilteredHandler
+     * @since 4.5.0
+     * @version 4.5.0
+     * @author Ktt Development
+     */
+    public static class Builder {
+
+        private final List<BeforeFilter> before = new ArrayList<>();
+        private final List<AroundFilter> around = new ArrayList<>();
+        private final List<AfterFilter> after = new ArrayList<>();
+
+        /**
+         * Creates a builder with no filters.
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public Builder(){ }
+
+        /**
+         * Adds a filter that runs before the handler.
+         *
+         * @param filter filter
+         * @return builder
+         *
+         * @see BeforeFilter
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder before(final BeforeFilter filter){
+            before.add(Objects.requireNonNull(filter));
+            return this;
+        }
+
+        /**
+         * Adds a filter that wraps the handler.
+         *
+         * @param filter filter
+         * @return builder
+         *
+         * @see AroundFilter
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder around(final AroundFilter filter){
+            around.add(Objects.requireNonNull(filter));
+            return this;
+        }
+
+        /**
+         * Adds a filter that runs after the handler.
+         *
+         * @param filter filter
+         * @return builder
+         *
+         * @see AfterFilter
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder after(final AfterFilter filter){
+            after.add(Objects.requireNonNull(filter));
+            return this;
+        }
+
+        /**
+         * Compiles the filters around a handler. If the handler is itself a {@link FilteredHandler} and this builder only has before filters, the filters are merged into a single handler instead of being nested.
+         *
+         * @param handler handler to filter
+         * @return filtered handler
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final FilteredHandler build(final HttpHandler handler){
+            Objects.requireNonNull(handler);
+            if(handler instanceof FilteredHandler && around.isEmpty() && after.isEmpty()){
+                final FilteredHandler inner = (FilteredHandler) handler;
+                final List<BeforeFilter> merged = new ArrayList<>(before);
+                merged.addAll(Arrays.asList(inner.before));
+                return new FilteredHandler(merged.toArray(new BeforeFilter[0]), inner.around, inner.after, inner.handler);
+            }
+            return new FilteredHandler(before.toArray(new BeforeFilter[0]), around.toArray(new AroundFilter[0]), after.toArray(new AfterFilter[0]), handler);
+        }
+
+    }
+
+}
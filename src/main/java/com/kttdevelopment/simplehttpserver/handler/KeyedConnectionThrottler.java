@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ConnectionThrottler} that counts connections for each client, such as an address or session. A client is only tracked while it has connections, so the table does not grow with every client ever seen. Once the table holds the maximum amount of clients, connections from new clients are refused.
+ *
+ * @param <K> client type
+ *
+ * @see ExchangeThrottler
+ * @see ServerExchangeThrottler
+ * @see SessionThrottler
+ * @see ServerSessionThrottler
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+abstract class KeyedConnectionThrottler<K> extends ConnectionThrottler {
+
+    final Map<K,Integer> connections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger clients = new AtomicInteger(0);
+    private final AtomicInteger peakClients = new AtomicInteger(0);
+    private volatile int maxClients = -1;
+
+    /**
+     * Adds a connection for a client.
+     *
+     * @param client client
+     * @param maxConnections maximum connections for the client, or -1 for unlimited
+     * @return if the connection was added
+     *
+     * @see #deleteClientConnection(Object)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean addClientConnection(final K client, final int maxConnections){
+        final AtomicBoolean added = new AtomicBoolean(false);
+        connections.compute(client, (k, count) -> {
+            if(count == null){
+                if(maxConnections == 0 || !reserveClient())
+                    return null;
+                added.set(true);
+                return 1;
+            }else if(maxConnections < 0 || count < maxConnections){
+                added.set(true);
+                return count + 1;
+            }
+            return count;
+        });
+        return added.get();
+    }
+
+    /**
+     * Removes a connection for a client. The client is no longer tracked once it has no connections.
+     *
+     * @param client client
+     * @return if the client had a connection
+     *
+     * @see #addClientConnection(Object, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean deleteClientConnection(final K client){
+        final AtomicBoolean removed = new AtomicBoolean(false);
+        connections.computeIfPresent(client, (k, count) -> {
+            removed.set(true);
+            if(count > 1)
+                return count - 1;
+            clients.decrementAndGet();
+            return null;
+        });
+        return removed.get();
+    }
+
+    private boolean reserveClient(){
+        final int size = reserve(clients, maxClients);
+        if(size < 0)
+            return false;
+
+        int peak;
+        while((peak = peakClients.get()) < size && !peakClients.compareAndSet(peak, size));
+        return true;
+    }
+
+    /**
+     * Increments a counter if it is below a maximum.
+     *
+     * @param counter counter
+     * @param max maximum, or -1 for unlimited
+     * @return new value, or -1 if the counter is at the maximum
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    static int reserve(final AtomicInteger counter, final int max){
+        int current;
+        do{
+            current = counter.get();
+            if(max >= 0 && current >= max)
+                return -1;
+        }while(!counter.compareAndSet(current, current + 1));
+        return current + 1;
+    }
+
+    /**
+     * Returns the amount of clients that currently have connections.
+     *
+     * @return tracked clients
+     *
+     * @see #getPeakTrackedClients()
+     * @see #setMaxTrackedClients(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getTrackedClients(){
+        return clients.get();
+    }
+
+    /**
+     * Returns the most clients that have had connections at once.
+     *
+     * @return peak tracked clients
+     *
+     * @see #getTrackedClients()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getPeakTrackedClients(){
+        return peakClients.get();
+    }
+
+    /**
+     * Sets the maximum amount of clients that can have connections at once. Connections from new clients are refused once the limit is reached. A value of <code>-1</code> means unlimited clients.
+     *
+     * @param maxClients maximum tracked clients
+     *
+     * @see #getMaxTrackedClients()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void setMaxTrackedClients(final int maxClients){
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Returns the maximum amount of clients that can have connections at once.
+     *
+     * @return maximum tracked clients, or -1 for unlimited
+     *
+     * @see #setMaxTrackedClients(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getMaxTrackedClients(){
+        return maxClients;
+    }
+
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A handler that sends the server's metrics in the Prometheus text exposition format. The metrics include per-context request counts, response codes, bytes and latency (see {@link SimpleHttpServer#setContextStatisticsEnabled(boolean)}), active exchanges, connections when the server has keep-alive limits, executor queue depth when the executor is a {@link ThreadPoolExecutor} or a {@link LoadShedder} is set, active sessions, load shedding when a {@link LoadShedder} is set, and per class queues and latency when a {@link FairScheduler} is set. Bulkheads, throttlers, throttle queues, file handlers and SSE handlers are included once added to this handler. <br>
+ * The response is rendered into buffers that each thread reuses between requests, so scrapes do not allocate a new response and do not wait for each other.
+ *
+ * @see SimpleHttpServer#setContextStatisticsEnabled(boolean)
+ * @see ThrottledHandler
+ * @see ThrottleQueue
+ * @see FileHandler
+ * @see SSEHandler
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class MetricsHandler implements SimpleHttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String[] STATUS_CLASSES = {null, "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final SimpleHttpServer server;
+
+    private final Map<String,ConnectionThrottler> throttlers = new ConcurrentHashMap<>();
+    private final Map<String,ThrottleQueue> throttleQueues = new ConcurrentHashMap<>();
+    private final Map<String,Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String,FileHandler> fileHandlers = new ConcurrentHashMap<>();
+    private final Map<String,SSEHandler> sseHandlers = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Scrape> scrapes = ThreadLocal.withInitial(Scrape::new); // reused between requests on the same thread
+
+    /**
+     * Creates a metrics handler for a server.
+     *
+     * @param server server to report metrics for
+     *
+     * @see SimpleHttpServer
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public MetricsHandler(final SimpleHttpServer server){
+        this.server = Objects.requireNonNull(server);
+    }
+
+//
+
+    /**
+     * Adds a throttler to report rejected connections for.
+     *
+     * @param name name to report the throttler as
+     * @param throttler throttler
+     *
+     * @see ExchangeThrottler
+     * @see ServerExchangeThrottler
+     * @see SessionThrottler
+     * @see ServerSessionThrottler
+     * @see AdaptiveThrottler
+     * @see RateThrottler
+     * @see #removeThrottler(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @SuppressWarnings("ClassEscapesDefinedScope") // class is required for throttler to function, scope is locked to this package only; ignore visibility error
+    public final void addThrottler(final String name, final ConnectionThrottler throttler){
+        throttlers.put(name, Objects.requireNonNull(throttler));
+    }
+
+    /**
+     * Removes a throttler.
+     *
+     * @param name name of the throttler
+     *
+     * @see #addThrottler(String, ConnectionThrottler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeThrottler(final String name){
+        throttlers.remove(name);
+    }
+
+    /**
+     * Adds a throttle queue to report waiting exchanges, outcomes and wait time for.
+     *
+     * @param name name to report the queue as
+     * @param queue throttle queue
+     *
+     * @see ThrottleQueue
+     * @see #removeThrottleQueue(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void addThrottleQueue(final String name, final ThrottleQueue queue){
+        throttleQueues.put(name, Objects.requireNonNull(queue));
+    }
+
+    /**
+     * Removes a throttle queue.
+     *
+     * @param name name of the queue
+     *
+     * @see #addThrottleQueue(String, ThrottleQueue)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeThrottleQueue(final String name){
+        throttleQueues.remove(name);
+    }
+
+    /**
+     * Adds a bulkhead to report queued, active, completed and rejected exchanges and wait time for.
+     *
+     * @param name name to report the bulkhead as
+     * @param bulkhead bulkhead
+     *
+     * @see Bulkhead
+     * @see #removeBulkhead(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void addBulkhead(final String name, final Bulkhead bulkhead){
+        bulkheads.put(name, Objects.requireNonNull(bulkhead));
+    }
+
+    /**
+     * Removes a bulkhead.
+     *
+     * @param name name of the bulkhead
+     *
+     * @see #addBulkhead(String, Bulkhead)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeBulkhead(final String name){
+        bulkheads.remove(name);
+    }
+
+    /**
+     * Adds a file handler to report cache hits, misses and resident bytes for.
+     *
+     * @param name name to report the handler as
+     * @param handler file handler
+     *
+     * @see FileHandler
+     * @see #removeFileHandler(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void addFileHandler(final String name, final FileHandler handler){
+        fileHandlers.put(name, Objects.requireNonNull(handler));
+    }
+
+    /**
+     * Removes a file handler.
+     *
+     * @param name name of the handler
+     *
+     * @see #addFileHandler(String, FileHandler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeFileHandler(final String name){
+        fileHandlers.remove(name);
+    }
+
+    /**
+     * Adds a server sent events handler to report listeners for.
+     *
+     * @param name name to report the handler as
+     * @param handler server sent events handler
+     *
+     * @see SSEHandler
+     * @see #removeSSEHandler(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void addSSEHandler(final String name, final SSEHandler handler){
+        sseHandlers.put(name, Objects.requireNonNull(handler));
+    }
+
+    /**
+     * Removes a server sent events handler.
+     *
+     * @param name name of the handler
+     *
+     * @see #addSSEHandler(String, SSEHandler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeSSEHandler(final String name){
+        sseHandlers.remove(name);
+    }
+
+//
+
+    @Override
+    public final void handle(final HttpExchange exchange) throws IOException{
+        SimpleHttpHandler.super.handle(exchange);
+    }
+
+    @Override
+    public final void handle(final SimpleHttpExchange exchange) throws IOException{
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        if(exchange.getRequestMethod().equals(HttpRequestMethod.HEAD)){
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, -1);
+        }else{
+            final Scrape scrape = scrapes.get();
+            final int length = render(scrape); // may replace the buffer with a larger one
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, length);
+            exchange.getOutputStream().write(scrape.buffer.array(), 0, length);
+        }
+        exchange.close();
+    }
+
+//
+
+    private int render(final Scrape scrape){
+        final StringBuilder text = scrape.text;
+        text.setLength(0);
+
+        // contexts
+        final Collection<ContextStatistics> contexts = server.getContextStatistics().values();
+
+        type(text, "simplehttpserver_requests_total", "counter", "Requests handled by context.");
+        for(final ContextStatistics statistics : contexts)
+            sample(text, "simplehttpserver_requests_total", "context", statistics.getContext(), null, null).append(statistics.getRequests()).append('\n');
+
+        type(text, "simplehttpserver_responses_total", "counter", "Responses sent by context and status code class.");
+        for(final ContextStatistics statistics : contexts)
+            for(int i = 1; i <= 5; i++)
+                sample(text, "simplehttpserver_responses_total", "context", statistics.getContext(), "code", STATUS_CLASSES[i]).append(statistics.getResponses(i)).append('\n');
+
+        type(text, "simplehttpserver_response_bytes_total", "counter", "Response body bytes written by context.");
+        for(final ContextStatistics statistics : contexts)
+            sample(text, "simplehttpserver_response_bytes_total", "context", statistics.getContext(), null, null).append(statistics.getBytesWritten()).append('\n');
+
+        type(text, "simplehttpserver_request_duration_seconds", "summary", "Time taken to handle requests by context.");
+        for(final ContextStatistics statistics : contexts){
+            final String context = statistics.getContext();
+            sample(text, "simplehttpserver_request_duration_seconds", "context", context, "quantile", "0.5").append(seconds(statistics.getMedianLatency())).append('\n');
+            sample(text, "simplehttpserver_request_duration_seconds", "context", context, "quantile", "0.99").append(seconds(statistics.get99thPercentileLatency())).append('\n');
+            sample(text, "simplehttpserver_request_duration_seconds", "context", context, "quantile", "0.999").append(seconds(statistics.get999thPercentileLatency())).append('\n');
+            sample(text, "simplehttpserver_request_duration_seconds_sum", "context", context, null, null).append(seconds(statistics.getTotalLatency())).append('\n');
+            sample(text, "simplehttpserver_request_duration_seconds_count", "context", context, null, null).append(statistics.getRequests()).append('\n');
+        }
+
+        // server
+        type(text, "simplehttpserver_active_exchanges", "gauge", "Exchanges currently being handled.");
+        sample(text, "simplehttpserver_active_exchanges", null, null, null, null).append(server.getActiveExchanges()).append('\n');
+
+        final ConnectionStatistics connections = server.getConnectionStatistics();
+        type(text, "simplehttpserver_active_connections", "gauge", "Connections currently open.");
+        sample(text, "simplehttpserver_active_connections", null, null, null, null).append(connections.getActiveConnections()).append('\n');
+        type(text, "simplehttpserver_connections_total", "counter", "Connections opened.");
+        sample(text, "simplehttpserver_connections_total", null, null, null, null).append(connections.getConnections()).append('\n');
+
+        final Executor executor = server.getExecutor();
+        final LoadShedder loadShedder = server.getLoadShedder();
+        if(executor instanceof ThreadPoolExecutor || loadShedder != null){
+            type(text, "simplehttpserver_executor_queue_depth", "gauge", "Exchanges waiting for an executor thread.");
+            // exchanges wait in the load shedder, the executor queue only holds a placeholder for each of them
+            sample(text, "simplehttpserver_executor_queue_depth", null, null, null, null).append(loadShedder != null ? loadShedder.getWaiting() : ((ThreadPoolExecutor) executor).getQueue().size()).append('\n');
+        }
+        if(executor instanceof ThreadPoolExecutor){
+            type(text, "simplehttpserver_executor_active_threads", "gauge", "Executor threads handling exchanges.");
+            sample(text, "simplehttpserver_executor_active_threads", null, null, null, null).append(((ThreadPoolExecutor) executor).getActiveCount()).append('\n');
+        }
+
+        if(loadShedder != null){
+            type(text, "simplehttpserver_load_shedder_shed_total", "counter", "Exchanges shed after waiting too long for an executor thread.");
+            sample(text, "simplehttpserver_load_shedder_shed_total", null, null, null, null).append(loadShedder.getShed()).append('\n');
+            type(text, "simplehttpserver_load_shedder_overloaded", "gauge", "If the smallest sojourn time over the last interval exceeded the target.");
+            sample(text, "simplehttpserver_load_shedder_overloaded", null, null, null, null).append(loadShedder.isOverloaded() ? 1 : 0).append('\n');
+            type(text, "simplehttpserver_load_shedder_min_sojourn_seconds", "gauge", "Smallest time exchanges waited for an executor thread over the last interval.");
+            sample(text, "simplehttpserver_load_shedder_min_sojourn_seconds", null, null, null, null).append(seconds(loadShedder.getMinSojourn())).append('\n');
+        }
+
+        if(!bulkheads.isEmpty()){
+            type(text, "simplehttpserver_bulkhead_queued", "gauge", "Exchanges waiting for a bulkhead thread.");
+            bulkheads.forEach((name, bulkhead) -> sample(text, "simplehttpserver_bulkhead_queued", "bulkhead", name, null, null).append(bulkhead.getQueued()).append('\n'));
+            type(text, "simplehttpserver_bulkhead_active", "gauge", "Exchanges being handled by bulkhead.");
+            bulkheads.forEach((name, bulkhead) -> sample(text, "simplehttpserver_bulkhead_active", "bulkhead", name, null, null).append(bulkhead.getActive()).append('\n'));
+            type(text, "simplehttpserver_bulkhead_rejected_total", "counter", "Exchanges rejected because the bulkhead queue was full.");
+            bulkheads.forEach((name, bulkhead) -> sample(text, "simplehttpserver_bulkhead_rejected_total", "bulkhead", name, null, null).append(bulkhead.getRejected()).append('\n'));
+            type(text, "simplehttpserver_bulkhead_wait_seconds", "summary", "Time exchanges waited for a bulkhead thread.");
+            bulkheads.forEach((name, bulkhead) -> {
+                sample(text, "simplehttpserver_bulkhead_wait_seconds_sum", "bulkhead", name, null, null).append(seconds(bulkhead.getTotalWaitTime())).append('\n');
+                sample(text, "simplehttpserver_bulkhead_wait_seconds_count", "bulkhead", name, null, null).append(bulkhead.getActive() + bulkhead.getCompleted()).append('\n');
+            });
+        }
+
+        final FairScheduler scheduler = server.getScheduler();
+        if(scheduler != null){
+            type(text, "simplehttpserver_scheduler_queued", "gauge", "Exchanges waiting in scheduler class.");
+            for(final String name : scheduler.getClasses())
+                sample(text, "simplehttpserver_scheduler_queued", "class", name, null, null).append(scheduler.getQueued(name)).append('\n');
+            type(text, "simplehttpserver_scheduler_rejected_total", "counter", "Exchanges rejected because the scheduler class queue was full.");
+            for(final String name : scheduler.getClasses())
+                sample(text, "simplehttpserver_scheduler_rejected_total", "class", name, null, null).append(scheduler.getRejected(name)).append('\n');
+            type(text, "simplehttpserver_scheduler_starved_total", "counter", "Exchanges served ahead of their turn after waiting longer than the starvation timeout.");
+            for(final String name : scheduler.getClasses())
+                sample(text, "simplehttpserver_scheduler_starved_total", "class", name, null, null).append(scheduler.getStarved(name)).append('\n');
+            type(text, "simplehttpserver_scheduler_duration_seconds", "summary", "Time from scheduling to handled by scheduler class.");
+            for(final String name : scheduler.getClasses()){
+                final ContextStatistics statistics = scheduler.getStatistics(name);
+                sample(text, "simplehttpserver_scheduler_duration_seconds", "class", name, "quantile", "0.5").append(seconds(statistics.getMedianLatency())).append('\n');
+                sample(text, "simplehttpserver_scheduler_duration_seconds", "class", name, "quantile", "0.99").append(seconds(statistics.get99thPercentileLatency())).append('\n');
+                sample(text, "simplehttpserver_scheduler_duration_seconds", "class", name, "quantile", "0.999").append(seconds(statistics.get999thPercentileLatency())).append('\n');
+                sample(text, "simplehttpserver_scheduler_duration_seconds_sum", "class", name, null, null).append(seconds(statistics.getTotalLatency())).append('\n');
+                sample(text, "simplehttpserver_scheduler_duration_seconds_count", "class", name, null, null).append(statistics.getRequests()).append('\n');
+            }
+            type(text, "simplehttpserver_scheduler_wait_seconds_total", "counter", "Time exchanges waited for a scheduler thread by class.");
+            for(final String name : scheduler.getClasses())
+                sample(text, "simplehttpserver_scheduler_wait_seconds_total", "class", name, null, null).append(seconds(scheduler.getTotalWaitTime(name))).append('\n');
+        }
+
+        final HttpSessionHandler sessionHandler = server.getHttpSessionHandler();
+        if(sessionHandler != null){
+            type(text, "simplehttpserver_sessions", "gauge", "Sessions assigned by the session handler.");
+            sample(text, "simplehttpserver_sessions", null, null, null, null).append(sessionHandler.getSessionCount()).append('\n');
+        }
+
+        // handlers
+        if(!throttlers.isEmpty()){
+            type(text, "simplehttpserver_throttler_rejected_total", "counter", "Connections rejected by throttler.");
+            throttlers.forEach((name, throttler) -> sample(text, "simplehttpserver_throttler_rejected_total", "throttler", name, null, null).append(throttler.getRejectedConnections()).append('\n'));
+
+            if(throttlers.values().stream().anyMatch(AdaptiveThrottler.class::isInstance)){
+                type(text, "simplehttpserver_throttler_limit", "gauge", "Current connection limit of adaptive throttler.");
+                throttlers.forEach((name, throttler) -> {
+                    if(throttler instanceof AdaptiveThrottler)
+                        sample(text, "simplehttpserver_throttler_limit", "throttler", name, null, null).append(((AdaptiveThrottler) throttler).getLimit()).append('\n');
+                });
+            }
+
+            if(throttlers.values().stream().anyMatch(KeyedConnectionThrottler.class::isInstance)){
+                type(text, "simplehttpserver_throttler_tracked_clients", "gauge", "Clients with connections tracked by throttler.");
+                throttlers.forEach((name, throttler) -> {
+                    if(throttler instanceof KeyedConnectionThrottler)
+                        sample(text, "simplehttpserver_throttler_tracked_clients", "throttler", name, null, null).append(((KeyedConnectionThrottler<?>) throttler).getTrackedClients()).append('\n');
+                });
+                type(text, "simplehttpserver_throttler_tracked_clients_peak", "gauge", "Most clients with connections tracked by throttler at once.");
+                throttlers.forEach((name, throttler) -> {
+                    if(throttler instanceof KeyedConnectionThrottler)
+                        sample(text, "simplehttpserver_throttler_tracked_clients_peak", "throttler", name, null, null).append(((KeyedConnectionThrottler<?>) throttler).getPeakTrackedClients()).append('\n');
+                });
+            }
+        }
+
+        if(!throttleQueues.isEmpty()){
+            type(text, "simplehttpserver_throttle_queue_waiting", "gauge", "Exchanges waiting in throttle queue.");
+            throttleQueues.forEach((name, queue) -> sample(text, "simplehttpserver_throttle_queue_waiting", "queue", name, null, null).append(queue.getWaiting()).append('\n'));
+            type(text, "simplehttpserver_throttle_queue_exchanges_total", "counter", "Exchanges leaving throttle queue by outcome.");
+            throttleQueues.forEach((name, queue) -> {
+                sample(text, "simplehttpserver_throttle_queue_exchanges_total", "queue", name, "outcome", "admitted").append(queue.getAdmitted()).append('\n');
+                sample(text, "simplehttpserver_throttle_queue_exchanges_total", "queue", name, "outcome", "timeout").append(queue.getTimedOut()).append('\n');
+                sample(text, "simplehttpserver_throttle_queue_exchanges_total", "queue", name, "outcome", "full").append(queue.getOverflowed()).append('\n');
+            });
+            type(text, "simplehttpserver_throttle_queue_wait_seconds", "summary", "Time exchanges waited in throttle queue.");
+            throttleQueues.forEach((name, queue) -> {
+                sample(text, "simplehttpserver_throttle_queue_wait_seconds_sum", "queue", name, null, null).append(seconds(queue.getTotalWaitTime())).append('\n');
+                sample(text, "simplehttpserver_throttle_queue_wait_seconds_count", "queue", name, null, null).append(queue.getAdmitted() + queue.getTimedOut()).append('\n');
+            });
+        }
+
+        if(!fileHandlers.isEmpty()){
+            type(text, "simplehttpserver_file_cache_hits_total", "counter", "Files served from memory by file handler.");
+            fileHandlers.forEach((name, handler) -> sample(text, "simplehttpserver_file_cache_hits_total", "handler", name, null, null).append(handler.getCacheHits()).append('\n'));
+            type(text, "simplehttpserver_file_cache_misses_total", "counter", "Files read from disk by file handler.");
+            fileHandlers.forEach((name, handler) -> sample(text, "simplehttpserver_file_cache_misses_total", "handler", name, null, null).append(handler.getCacheMisses()).append('\n'));
+            type(text, "simplehttpserver_file_cache_resident_bytes", "gauge", "File bytes held in memory by file handler.");
+            fileHandlers.forEach((name, handler) -> sample(text, "simplehttpserver_file_cache_resident_bytes", "handler", name, null, null).append(handler.getResidentBytes()).append('\n'));
+        }
+
+        if(!sseHandlers.isEmpty()){
+            type(text, "simplehttpserver_sse_listeners", "gauge", "Listeners connected to server sent events handler.");
+            sseHandlers.forEach((name, handler) -> sample(text, "simplehttpserver_sse_listeners", "handler", name, null, null).append(handler.getListenerCount()).append('\n'));
+        }
+
+        return scrape.encode();
+    }
+
+    private static void type(final StringBuilder text, final String name, final String type, final String help){
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static StringBuilder sample(final StringBuilder text, final String name, final String label, final String value, final String label2, final String value2){
+        text.append(name);
+        if(label != null){
+            text.append('{');
+            label(text, label, value);
+            if(label2 != null){
+                text.append(',');
+                label(text, label2, value2);
+            }
+            text.append('}');
+        }
+        return text.append(' ');
+    }
+
+    private static void label(final StringBuilder text, final String name, final String value){
+        text.append(name).append("=\"");
+        final int len = value.length();
+        for(int i = 0; i < len; i++){
+            final char ch = value.charAt(i);
+            switch(ch){
+                case '\\':
+                    text.append("\\\\");
+                    break;
+                case '"':
+                    text.append("\\\"");
+                    break;
+                case '\n':
+                    text.append("\\n");
+                    break;
+                default:
+                    text.append(ch);
+            }
+        }
+        text.append('"');
+    }
+
+    private static double seconds(final long nanos){
+        return nanos / 1_000_000_000d;
+    }
+
+    private static final class Scrape {
+
+        private final StringBuilder text = new StringBuilder(4096);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        // encodes the text into the reused buffer and returns the length
+        private int encode(){
+            final CharBuffer in = CharBuffer.wrap(text);
+            encoder.reset();
+            buffer.clear();
+            while(encoder.encode(in, buffer, true).isOverflow()){
+                final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            encoder.flush(buffer);
+            return buffer.position();
+        }
+
+    }
+
+//
+
+    @Override
+    public String toString(){
+        return
+            "MetricsHandler"    + '{' +
+            "server"            + '=' +     server          + ", " +
+            "throttlers"        + '=' +     throttlers      + ", " +
+            "fileHandlers"      + '=' +     fileHandlers    + ", " +
+            "sseHandlers"       + '=' +     sseHandlers     +
+            '}';
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.HttpSessionHandler;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate of requests per address or per http session using a token bucket. Each client may send up to the burst amount of requests at once, after which requests are allowed at the rate. The amount of concurrent connections is not limited. <br>
+ * Buckets are held in a striped hash table with the time and tokens of each bucket packed into a single <code>long</code>. A bucket that has refilled is the same as a new bucket, so full buckets are removed when a stripe runs out of room; if every bucket is in use the least recently used of a sample is evicted. The amount of buckets never exceeds the maximum, even when many different addresses are seen.
+ *
+ * @see ThrottledHandler
+ * @see ExchangeThrottler
+ * @see SessionThrottler
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class RateThrottler extends ConnectionThrottler {
+
+    // state: milliseconds since creation (40 bits) | tokens with 8 fractional bits (24 bits)
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE = 1 << 8;
+
+    private static final int STRIPES = 16;
+    private static final int SAMPLE = 8;
+
+    private final HttpSessionHandler sessionHandler;
+    private final double rate;
+    private final int burst;
+    private final int maxBuckets;
+
+    private final double refill; // token units per millisecond
+    private final long capacity; // token units
+    private final long origin = System.nanoTime();
+
+    private final Stripe[] stripes;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a throttler that limits the request rate of each address, tracking up to 65536 addresses.
+     *
+     * @param rate requests allowed per second
+     * @param burst requests allowed at once
+     *
+     * @see #RateThrottler(double, int, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RateThrottler(final double rate, final int burst){
+        this(null, rate, burst, 65536);
+    }
+
+    /**
+     * Creates a throttler that limits the request rate of each address.
+     *
+     * @param rate requests allowed per second
+     * @param burst requests allowed at once
+     * @param maxBuckets maximum amount of addresses to track
+     *
+     * @see #RateThrottler(double, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RateThrottler(final double rate, final int burst, final int maxBuckets){
+        this(null, rate, burst, maxBuckets);
+    }
+
+    /**
+     * Creates a throttler that limits the request rate of each http session, tracking up to 65536 sessions.
+     *
+     * @param sessionHandler session handler
+     * @param rate requests allowed per second
+     * @param burst requests allowed at once
+     *
+     * @see HttpSessionHandler
+     * @see #RateThrottler(HttpSessionHandler, double, int, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RateThrottler(final HttpSessionHandler sessionHandler, final double rate, final int burst){
+        this(sessionHandler, rate, burst, 65536);
+    }
+
+    /**
+     * Creates a throttler that limits the request rate of each http session, or each address if the session handler is null.
+     *
+     * @param sessionHandler session handler or null to limit by address
+     * @param rate requests allowed per second
+     * @param burst requests allowed at once
+     * @param maxBuckets maximum amount of sessions or addresses to track
+     * @throws IllegalArgumentException if the rate is not positive, the burst is not between 1 and 65535, or the maximum buckets is less than 1
+     *
+     * @see HttpSessionHandler
+     * @see #RateThrottler(HttpSessionHandler, double, int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RateThrottler(final HttpSessionHandler sessionHandler, final double rate, final int burst, final int maxBuckets){
+        if(!(rate > 0))
+            throw new IllegalArgumentException("Rate must be positive");
+        if(burst < 1 || burst > (TOKEN_MASK >>> 8))
+            throw new IllegalArgumentException("Burst must be between 1 and " + (TOKEN_MASK >>> 8));
+        if(maxBuckets < 1)
+            throw new IllegalArgumentException("Maximum buckets must be at least 1");
+
+        this.sessionHandler = sessionHandler;
+        this.rate           = rate;
+        this.burst          = burst;
+        this.maxBuckets     = maxBuckets;
+
+        refill   = rate * ONE / 1000;
+        capacity = burst * ONE;
+
+        stripes = new Stripe[Math.min(STRIPES, Integer.highestOneBit(maxBuckets))];
+        for(int i = 0; i < stripes.length; i++) // split buckets exactly so the total is the maximum
+            stripes[i] = new Stripe(maxBuckets / stripes.length + (i < maxBuckets % stripes.length ? 1 : 0));
+    }
+
+    @Override
+    final boolean addConnection(final HttpExchange exchange){
+        final Object key = sessionHandler != null ? sessionHandler.getSession(exchange) : exchange.getRemoteAddress().getAddress();
+        final int hash = spread(key.hashCode());
+        final Stripe stripe = stripes[hash & (stripes.length - 1)];
+        final long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+        synchronized(stripe){
+            return stripe.acquire(key, hash, now);
+        }
+    }
+
+    @Override
+    final void deleteConnection(final HttpExchange exchange){ }
+
+    /**
+     * Returns <code>-1</code>, the amount of concurrent connections is not limited.
+     *
+     * @param exchange exchange to process
+     * @return -1
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public final int getMaxConnections(final HttpExchange exchange){
+        return -1;
+    }
+
+    /**
+     * Returns the requests allowed per second.
+     *
+     * @return rate
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final double getRate(){
+        return rate;
+    }
+
+    /**
+     * Returns the requests allowed at once.
+     *
+     * @return burst
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getBurst(){
+        return burst;
+    }
+
+    /**
+     * Returns the amount of buckets being tracked.
+     *
+     * @return buckets
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getBucketCount(){
+        int size = 0;
+        for(final Stripe stripe : stripes)
+            synchronized(stripe){
+                size += stripe.size;
+            }
+        return size;
+    }
+
+    /**
+     * Returns the amount of buckets evicted while still in use because the table was full.
+     *
+     * @return evictions
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getEvictions(){
+        return evictions.sum();
+    }
+
+    private static int spread(final int hash){
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // open addressing table with linear probing, guarded by its monitor
+    private final class Stripe {
+
+        private final int limit;
+        private final int mask;
+        private final Object[] keys;
+        private final int[] hashes;
+        private final long[] states;
+        private int size = 0;
+        private int cursor = 0;
+        private long lastSweep = -1;
+
+        private Stripe(final int limit){
+            this.limit = limit;
+            final int slots = Integer.highestOneBit(Math.max(2, limit * 4 / 3) - 1) << 1; // at most 3/4 full
+            mask    = slots - 1;
+            keys    = new Object[slots];
+            hashes  = new int[slots];
+            states  = new long[slots];
+        }
+
+        private boolean acquire(final Object key, final int hash, final long now){
+            int index = (hash >>> 4) & mask;
+            while(keys[index] != null){
+                if(hashes[index] == hash && keys[index].equals(key)){
+                    final long state = refill(states[index], now);
+                    final long tokens = state & TOKEN_MASK;
+                    if(tokens < ONE){
+                        states[index] = state;
+                        return false;
+                    }
+                    states[index] = state - ONE;
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+
+            // new bucket
+            if(size >= limit){
+                makeRoom(now);
+                index = (hash >>> 4) & mask;
+                while(keys[index] != null)
+                    index = (index + 1) & mask;
+            }
+            keys[index]     = key;
+            hashes[index]   = hash;
+            states[index]   = (now << TOKEN_BITS) | (capacity - ONE);
+            size++;
+            return true;
+        }
+
+        // adds the tokens earned since the bucket was last used
+        private long refill(final long state, final long now){
+            final long time = state >>> TOKEN_BITS;
+            final long tokens = state & TOKEN_MASK;
+            final long added = (long) ((now - time) * refill);
+            if(tokens + added >= capacity)
+                return (now << TOKEN_BITS) | capacity;
+            if(added == 0)
+                return state; // keep the time so partial tokens are not lost
+            return ((time + (long) (added / refill)) << TOKEN_BITS) | (tokens + added);
+        }
+
+        private void makeRoom(final long now){
+            if(now != lastSweep){ // remove full buckets, at most once per millisecond
+                lastSweep = now;
+                for(int i = 0; i <= mask; i++)
+                    while(keys[i] != null && (refill(states[i], now) & TOKEN_MASK) == capacity)
+                        removeAt(i);
+                if(size < limit)
+                    return;
+            }
+
+            // evict least recently used of a sample
+            int oldest = -1;
+            for(int i = 0, found = 0; found < SAMPLE && i <= mask; i++){
+                final int index = (cursor + i) & mask;
+                if(keys[index] != null){
+                    if(oldest < 0 || states[index] >>> TOKEN_BITS < states[oldest] >>> TOKEN_BITS)
+                        oldest = index;
+                    found++;
+                }
+            }
+            cursor = (oldest + 1) & mask;
+            removeAt(oldest);
+            evictions.increment();
+        }
+
+        // backward shift deletion keeps probe sequences intact
+        private void removeAt(int index){
+            int next = index;
+            while(true){
+                next = (next + 1) & mask;
+                if(keys[next] == null)
+                    break;
+                final int home = (hashes[next] >>> 4) & mask;
+                final boolean inPlace = index <= next ? index < home && home <= next : index < home || home <= next;
+                if(!inPlace){
+                    keys[index]     = keys[next];
+                    hashes[index]   = hashes[next];
+                    states[index]   = states[next];
+                    index = next;
+                }
+            }
+            keys[index] = null;
+            size--;
+        }
+
+    }
+
+    @Override
+    public String toString(){
+        return
+            "RateThrottler"     + '{' +
+            "sessionHandler"    + '=' +     sessionHandler      + ", " +
+            "rate"              + '=' +     rate                + ", " +
+            "burst"             + '=' +     burst               + ", " +
+            "maxBuckets"        + '=' +     maxBuckets          + ", " +
+            "buckets"           + '=' +     getBucketCount()    + ", " +
+            "evictions"         + '=' +     evictions           +
+            '}';
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A route handler sends each request to the handler whose route matches the path after the handler's context. Routes are compiled into a tree of path segments so requests are matched without regular expressions. <br>
+ * Route segments can be: <br>
+ * <code>literal</code> - matches the segment exactly <br>
+ * <code>{name}</code> - matches any segment and captures it as the parameter <code>name</code> <br>
+ * <code>*</code> - matches any segment <br>
+ * <code>**</code> - matches the rest of the path; must be the last segment <br>
+ * Literal segments take priority over parameters, then wildcards. Captured parameters are returned by {@link SimpleHttpExchange#getPathParameters()}. If no route matches the not found handler is used, if a route matches but not the request method a <code>405 Method Not Allowed</code> response is sent. <br>
+ * Routes are held in an immutable {@link RouteTable}. Adding or removing a route publishes a new copy of the table, and many routes can be replaced at once using {@link #setRouteTable(RouteTable)}; requests never see a partially updated set of routes.
+ *
+ * @see RouteTable
+ * @see SimpleHttpExchange#getPathParameters()
+ * @see HttpRequestMethod
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class RouteHandler implements HttpHandler {
+
+    private static final Map<HttpExchange,Map<String,String>> parameters = new ConcurrentHashMap<>();
+
+    private final HttpHandler notFound;
+
+    private volatile RouteTable table;
+
+    /**
+     * Creates a route handler that sends a <code>404 Not Found</code> response for unmatched requests.
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RouteHandler(){
+        this(exchange -> {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            exchange.close();
+        });
+    }
+
+    /**
+     * Creates a route handler.
+     *
+     * @param notFoundHandler handler for unmatched requests
+     *
+     * @see HttpHandler
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RouteHandler(final HttpHandler notFoundHandler){
+        this(new RouteTable.Builder().build(), notFoundHandler);
+    }
+
+    /**
+     * Creates a route handler with a route table.
+     *
+     * @param table route table
+     * @param notFoundHandler handler for unmatched requests
+     *
+     * @see RouteTable
+     * @see HttpHandler
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public RouteHandler(final RouteTable table, final HttpHandler notFoundHandler){
+        this.table = Objects.requireNonNull(table);
+        notFound = Objects.requireNonNull(notFoundHandler);
+    }
+
+//
+
+    /**
+     * Returns the route table currently used by the handler.
+     *
+     * @return route table
+     *
+     * @see RouteTable
+     * @see #setRouteTable(RouteTable)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final RouteTable getRouteTable(){
+        return table;
+    }
+
+    /**
+     * Replaces all routes at once. Requests already being matched finish with the previous table, all later requests use the new one.
+     *
+     * @param table route table
+     *
+     * @see RouteTable
+     * @see #getRouteTable()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public synchronized final void setRouteTable(final RouteTable table){
+        this.table = Objects.requireNonNull(table);
+    }
+
+//
+
+    /**
+     * Adds a route for any request method.
+     *
+     * @param route route template
+     * @param handler handler to use
+     * @throws IllegalArgumentException if the route is invalid
+     *
+     * @see #addRoute(String, String, HttpHandler)
+     * @see #removeRoute(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void addRoute(final String route, final HttpHandler handler){
+        addRoute(null, route, handler);
+    }
+
+    /**
+     * Adds a route for a request method.
+     *
+     * @param method request method or null for any method
+     * @param route route template
+     * @param handler handler to use
+     * @throws IllegalArgumentException if the route is invalid
+     *
+     * @see HttpRequestMethod
+     * @see #addRoute(String, HttpHandler)
+     * @see #removeRoute(String, String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public synchronized final void addRoute(final String method, final String route, final HttpHandler handler){
+        table = new RouteTable.Builder(table).addRoute(method, route, handler).build();
+    }
+
+    /**
+     * Removes a route for any request method.
+     *
+     * @param route route template
+     *
+     * @see #removeRoute(String, String)
+     * @see #addRoute(String, HttpHandler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final void removeRoute(final String route){
+        removeRoute(null, route);
+    }
+
+    /**
+     * Removes a route for a request method.
+     *
+     * @param method request method or null for any method
+     * @param route route template
+     *
+     * @see HttpRequestMethod
+     * @see #removeRoute(String)
+     * @see #addRoute(String, String, HttpHandler)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public synchronized final void removeRoute(final String method, final String route){
+        table = new RouteTable.Builder(table).removeRoute(method, route).build();
+    }
+
+//
+
+    /**
+     * Returns the path parameters captured by the route handler that is handling an exchange.
+     *
+     * @param exchange http exchange
+     * @return path parameters, empty if the exchange was not routed
+     *
+     * @see SimpleHttpExchange#getPathParameters()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public static Map<String,String> getPathParameters(final HttpExchange exchange){
+        return parameters.getOrDefault(exchange, Collections.emptyMap());
+    }
+
+    @Override
+    public final void handle(final HttpExchange exchange) throws IOException{
+        final String path = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+        final List<String> segments = RouteTable.split(path);
+
+        final String[] values = new String[segments.size()];
+        final RouteTable.Node node = table.match(segments, values);
+
+        if(node == null){
+            notFound.handle(exchange);
+            return;
+        }
+
+        final String method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
+        RouteTable.Endpoint endpoint = node.methods.get(method);
+        if(endpoint == null)
+            endpoint = node.any;
+
+        if(endpoint == null){
+            exchange.getResponseHeaders().set("Allow", String.join(", ", node.methods.keySet()));
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+            exchange.close();
+            return;
+        }
+
+        final Map<String,String> params = new HashMap<>();
+        for(int i = 0; i < endpoint.names.length; i++)
+            params.put(endpoint.names[i], values[i]);
+
+        final Map<String,String> was = parameters.put(exchange, Collections.unmodifiableMap(params));
+        try{
+            endpoint.handler.handle(exchange);
+        }finally{
+            if(was != null) // nested route handler
+                parameters.put(exchange, was);
+            else
+                parameters.remove(exchange);
+        }
+    }
+
+//
+
+    @Override
+    public String toString(){
+        return
+            "RouteHandler"  + '{' +
+            "notFound"      + '=' +     notFound    + ", " +
+            "table"         + '=' +     table       +
+            '}';
+    }
+
+}
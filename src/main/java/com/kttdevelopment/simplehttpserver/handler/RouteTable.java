@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.kttdevelopment.simplehttpserver.ContextUtil;
+import com.kttdevelopment.simplehttpserver.HttpRequestMethod;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.util.*;
+
+/**
+ * An immutable set of routes used by a {@link RouteHandler}. Tables are created using a {@link Builder} and published to a handler all at once using {@link RouteHandler#setRouteTable(RouteTable)}, so requests never see a partially updated set of routes.
+ *
+ * @see RouteHandler
+ * @see Builder
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class RouteTable {
+
+    private final Map<String,Map<String,HttpHandler>> routes;
+    private final Node root;
+
+    private RouteTable(final Map<String,Map<String,HttpHandler>> routes){
+        final Map<String,Map<String,HttpHandler>> copy = new LinkedHashMap<>();
+        routes.forEach((template, methods) -> copy.put(template, Collections.unmodifiableMap(new HashMap<>(methods))));
+        this.routes = Collections.unmodifiableMap(copy);
+        root = compile(this.routes);
+    }
+
+    /**
+     * Returns the route templates and the handler for each request method. A <code>null</code> method is used for routes that accept any method.
+     *
+     * @return routes
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final Map<String,Map<String,HttpHandler>> getRoutes(){
+        return routes;
+    }
+
+    /**
+     * Returns the node matching the path segments.
+     *
+     * @param segments path segments
+     * @param values array to store captured parameters in
+     * @return matching node or null if none match
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final Node match(final List<String> segments, final String[] values){
+        return root.match(segments, 0, values, 0);
+    }
+
+//
+
+    static List<String> split(final String path){
+        final List<String> segments = new ArrayList<>();
+        final int len = path.length();
+        int start = 0;
+        for(int i = 0; i <= len; i++){
+            if(i == len || path.charAt(i) == '/'){
+                if(i > start)
+                    segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static Node compile(final Map<String,Map<String,HttpHandler>> routes){
+        final Node root = new Node();
+        routes.forEach((template, methods) -> {
+            final List<String> segments = split(template);
+            final List<String> names = new ArrayList<>();
+
+            Node node = root;
+            for(int i = 0; i < segments.size(); i++){
+                final String segment = segments.get(i);
+                if(segment.equals("**")){
+                    if(i != segments.size() - 1)
+                        throw new IllegalArgumentException("Route " + template + " may only use ** as the last segment");
+                    if(node.catchAll == null)
+                        node.catchAll = new Node();
+                    node = node.catchAll;
+                }else if(segment.equals("*")){
+                    if(node.wildcard == null)
+                        node.wildcard = new Node();
+                    node = node.wildcard;
+                }else if(segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'){
+                    final String name = segment.substring(1, segment.length() - 1);
+                    if(names.contains(name))
+                        throw new IllegalArgumentException("Route " + template + " uses the parameter " + name + " more than once");
+                    names.add(name);
+                    if(node.param == null)
+                        node.param = new Node();
+                    node = node.param;
+                }else{
+                    node = node.literals.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+
+            final String[] params = names.toArray(new String[0]);
+            for(final Map.Entry<String,HttpHandler> entry : methods.entrySet()){
+                final Endpoint endpoint = new Endpoint(entry.getValue(), params);
+                final Endpoint existing; // templates that only differ by parameter names share a node
+                if(entry.getKey() == null){
+                    existing = node.any;
+                    node.any = endpoint;
+                }else{
+                    existing = node.methods.put(entry.getKey(), endpoint);
+                }
+                if(existing != null)
+                    throw new IllegalArgumentException("Route " + template + " conflicts with another route for " + (entry.getKey() == null ? "any method" : entry.getKey()));
+            }
+        });
+        return root;
+    }
+
+    static final class Node {
+
+        private final Map<String,Node> literals = new HashMap<>();
+        final Map<String,Endpoint> methods = new HashMap<>();
+        private Node param, wildcard, catchAll;
+        Endpoint any;
+
+        private boolean isEndpoint(){
+            return any != null || !methods.isEmpty();
+        }
+
+        // depth first search in order of literal, parameter, wildcard, catch all
+        private Node match(final List<String> segments, final int index, final String[] values, final int captured){
+            if(index == segments.size()){
+                if(isEndpoint())
+                    return this;
+                return catchAll != null && catchAll.isEndpoint() ? catchAll : null;
+            }
+
+            final String segment = segments.get(index);
+            Node match;
+
+            final Node literal = literals.get(segment);
+            if(literal != null && (match = literal.match(segments, index + 1, values, captured)) != null)
+                return match;
+
+            if(param != null){
+                values[captured] = segment;
+                if((match = param.match(segments, index + 1, values, captured + 1)) != null)
+                    return match;
+            }
+
+            if(wildcard != null && (match = wildcard.match(segments, index + 1, values, captured)) != null)
+                return match;
+
+            return catchAll != null && catchAll.isEndpoint() ? catchAll : null;
+        }
+
+    }
+
+    static final class Endpoint {
+
+        final HttpHandler handler;
+        final String[] names;
+
+        private Endpoint(final HttpHandler handler, final String[] names){
+            this.handler = handler;
+            this.names = names;
+        }
+
+    }
+
+    @Override
+    public String toString(){
+        return
+            "RouteTable"    + '{' +
+            "routes"        + '=' +     routes  +
+            '}';
+    }
+
+    /**
+     * Builder class for {@link RouteTable}. Routes are validated when the table is built.
+     *
+     * @see RouteTable
+     * @since 4.5.0
+     * @version 4.5.0
+     * @author Ktt Development
+     */
+    public static class Builder {
+
+        private final Map<String,Map<String,HttpHandler>> routes = new LinkedHashMap<>();
+
+        /**
+         * Creates a builder for an empty route table.
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public Builder(){ }
+
+        /**
+         * Creates a builder starting with the routes of an existing route table.
+         *
+         * @param table route table to copy
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public Builder(final RouteTable table){
+            table.routes.forEach((template, methods) -> routes.put(template, new HashMap<>(methods)));
+        }
+
+        /**
+         * Adds a route for any request method.
+         *
+         * @param route route template
+         * @param handler handler to use
+         * @return builder
+         *
+         * @see #addRoute(String, String, HttpHandler)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder addRoute(final String route, final HttpHandler handler){
+            return addRoute(null, route, handler);
+        }
+
+        /**
+         * Adds a route for a request method.
+         *
+         * @param method request method or null for any method
+         * @param route route template
+         * @param handler handler to use
+         * @return builder
+         *
+         * @see HttpRequestMethod
+         * @see #addRoute(String, HttpHandler)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder addRoute(final String method, final String route, final HttpHandler handler){
+            Objects.requireNonNull(handler);
+            routes.computeIfAbsent(ContextUtil.getContext(route, true, false), k -> new HashMap<>()).put(method == null ? null : method.toUpperCase(Locale.ROOT), handler);
+            return this;
+        }
+
+        /**
+         * Removes a route for any request method.
+         *
+         * @param route route template
+         * @return builder
+         *
+         * @see #removeRoute(String, String)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder removeRoute(final String route){
+            return removeRoute(null, route);
+        }
+
+        /**
+         * Removes a route for a request method.
+         *
+         * @param method request method or null for any method
+         * @param route route template
+         * @return builder
+         *
+         * @see HttpRequestMethod
+         * @see #removeRoute(String)
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder removeRoute(final String method, final String route){
+            final String template = ContextUtil.getContext(route, true, false);
+            final Map<String,HttpHandler> methods = routes.get(template);
+            if(methods != null){
+                methods.remove(method == null ? null : method.toUpperCase(Locale.ROOT));
+                if(methods.isEmpty())
+                    routes.remove(template);
+            }
+            return this;
+        }
+
+        /**
+         * Removes all routes.
+         *
+         * @return builder
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final Builder clear(){
+            routes.clear();
+            return this;
+        }
+
+        /**
+         * Compiles the routes into a route table.
+         *
+         * @return route table
+         * @throws IllegalArgumentException if a route is invalid
+         *
+         * @since 4.5.0
+         * @author Ktt Development
+         */
+        public final RouteTable build(){
+            return new RouteTable(routes);
+        }
+
+    }
+
+}
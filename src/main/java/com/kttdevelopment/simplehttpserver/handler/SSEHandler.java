@@ -23,6 +23,7 @@ import com.kttdevelopment.simplehttpserver.SimpleHttpHandler;
 import com.kttdevelopment.simplehttpserver.HttpRequestMethod;
 import com.sun.net.httpserver.HttpExchange;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -32,14 +33,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A SSE handler allows server to client events by using an <code>text/event-stream</code>. Events are sent using {@link #push(String)} or {@link #push(String, int, String)}.
+ * A SSE handler allows server to client events by using an <code>text/event-stream</code>. Events are sent using {@link #push(String)} or {@link #push(String, int, String)}. Streams are ended using {@link #close()}, this is done automatically when the server is stopped.
  *
  * @see SimpleHttpHandler
  * @since 03.01.00
- * @version 03.05.00
+ * @version 4.5.0
  * @author Ktt Development
  */
-public class SSEHandler implements SimpleHttpHandler {
+public class SSEHandler implements SimpleHttpHandler, Closeable {
 
     private final List<OutputStream> listeners = new ArrayList<>();
     private final AtomicInteger      eventId   = new AtomicInteger(-1);
@@ -77,7 +78,9 @@ public class SSEHandler implements SimpleHttpHandler {
             exchange.getOutputStream().flush();
         }
 
-        listeners.add(exchange.getOutputStream());
+        synchronized(this){
+            listeners.add(exchange.getOutputStream());
+        }
     }
 
     /**
@@ -108,12 +111,48 @@ public class SSEHandler implements SimpleHttpHandler {
         eventId.addAndGet(1);
         final EventStreamRecord record = new EventStreamRecord(retry, event, data);
         queue.add(record);
-        listeners.forEach(stream -> {
+        listeners.removeIf(stream -> { // remove listeners that have disconnected
             try{
                 stream.write(record.toString(eventId.get()).getBytes(StandardCharsets.UTF_8));
                 stream.flush();
+                return false;
+            }catch(final IOException ignored){
+                try{
+                    stream.close();
+                }catch(final IOException ignored1){ }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns the amount of listeners currently connected to the stream. Listeners that disconnected are removed on the next push.
+     *
+     * @return listener count
+     *
+     * @see #push(String)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public synchronized final int getListenerCount(){
+        return listeners.size();
+    }
+
+    /**
+     * Ends the stream for all current listeners.
+     *
+     * @see com.kttdevelopment.simplehttpserver.SimpleHttpServer#stop(int)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @Override
+    public synchronized final void close(){
+        listeners.forEach(stream -> {
+            try{
+                stream.close();
             }catch(final IOException ignored){ }
         });
+        listeners.clear();
     }
 
     private static class EventStreamRecord {
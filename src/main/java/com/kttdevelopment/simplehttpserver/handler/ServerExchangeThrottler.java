@@ -21,9 +21,6 @@ package com.kttdevelopment.simplehttpserver.handler;
 import com.sun.net.httpserver.HttpExchange;
 
 import java.net.InetAddress;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -35,12 +32,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see SessionThrottler
  * @see ServerSessionThrottler
  * @since 03.05.00
- * @version 03.05.01
+ * @version 4.5.0
  * @author Ktt Development
  */
-public class ServerExchangeThrottler extends ConnectionThrottler {
-
-    private final Map<InetAddress,AtomicInteger> connections = new ConcurrentHashMap<>();
+public class ServerExchangeThrottler extends KeyedConnectionThrottler<InetAddress> {
 
     private final AtomicInteger uConn = new AtomicInteger(0);
     private final AtomicInteger uConnMax = new AtomicInteger(-1);
@@ -65,63 +60,26 @@ public class ServerExchangeThrottler extends ConnectionThrottler {
         uConnMax.set(maxConnections);
     }
 
-    @SuppressWarnings("SpellCheckingInspection")
     @Override
     final boolean addConnection(final HttpExchange exchange){
         final InetAddress address = exchange.getRemoteAddress().getAddress();
         final int maxConn = getMaxConnections(exchange);
 
-        if(!connections.containsKey(address))
-            connections.put(address, new AtomicInteger(0));
-
-        final AtomicInteger conn = connections.get(address);
-        final boolean exempt = canIgnoreConnectionLimit(exchange);
-
-        if(maxConn < 0){
-            if(!exempt){
-                synchronized(this){
-                    final int umax = uConnMax.get();
-                    if(umax < 0 || uConn.get() < umax){
-                        conn.incrementAndGet();
-                        uConn.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                }
-            }else{
-                conn.incrementAndGet();
-                return true;
-            }
-        }else{
-            if(!exempt){
-                synchronized(this){
-                    final int umax = uConnMax.get();
-                    if(conn.get() < maxConn && (umax < 0 || uConn.get() < umax)){
-                        conn.incrementAndGet();
-                        uConn.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                }
-            }else{
-                final AtomicBoolean added = new AtomicBoolean(false);
-                conn.updateAndGet(operand -> {
-                   if(operand < maxConn) added.set(true);
-                   return operand < maxConn ? operand + 1 : operand;
-                });
-                return added.get();
-            }
-        }
+        if(canIgnoreConnectionLimit(exchange))
+            return addClientConnection(address, maxConn);
+
+        if(reserve(uConn, uConnMax.get()) < 0)
+            return false;
+        if(addClientConnection(address, maxConn))
+            return true;
+        uConn.decrementAndGet(); // client limit reached; release server connection
+        return false;
     }
 
     @Override
     final void deleteConnection(final HttpExchange exchange){
-        final InetAddress address = exchange.getRemoteAddress().getAddress();
-        if(connections.containsKey(address)){
-            connections.get(address).decrementAndGet();
-            if(!canIgnoreConnectionLimit(exchange))
-                uConn.decrementAndGet();
-        }
+        if(deleteClientConnection(exchange.getRemoteAddress().getAddress()) && !canIgnoreConnectionLimit(exchange))
+            uConn.decrementAndGet();
     }
 
     @Override
@@ -153,7 +111,7 @@ public class ServerExchangeThrottler extends ConnectionThrottler {
      * @since 03.05.00
      * @author Ktt Development
      */
-    public synchronized final void setMaxServerConnections(final int connections){
+    public final void setMaxServerConnections(final int connections){
         uConnMax.set(connections);
     }
 
@@ -166,7 +124,7 @@ public class ServerExchangeThrottler extends ConnectionThrottler {
      * @since 03.05.00
      * @author Ktt Development
      */
-    public synchronized final int getMaxServerConnections(){
+    public final int getMaxServerConnections(){
         return uConnMax.get();
     }
 
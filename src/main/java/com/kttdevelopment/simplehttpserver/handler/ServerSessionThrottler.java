@@ -22,9 +22,6 @@ import com.kttdevelopment.simplehttpserver.HttpSession;
 import com.kttdevelopment.simplehttpserver.HttpSessionHandler;
 import com.sun.net.httpserver.HttpExchange;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -37,13 +34,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see ServerExchangeThrottler
  * @see SessionThrottler
  * @since 03.05.00
- * @version 03.05.01
+ * @version 4.5.0
  * @author Ktt Development
  */
-public class ServerSessionThrottler extends ConnectionThrottler{
+public class ServerSessionThrottler extends KeyedConnectionThrottler<HttpSession> {
 
     private final HttpSessionHandler sessionHandler;
-    private final Map<HttpSession,AtomicInteger> connections = new ConcurrentHashMap<>();
 
     private final AtomicInteger uConn = new AtomicInteger(0);
     private final AtomicInteger uConnMax = new AtomicInteger(-1);
@@ -76,63 +72,27 @@ public class ServerSessionThrottler extends ConnectionThrottler{
         uConnMax.set(maxConnections);
     }
 
-    @SuppressWarnings("SpellCheckingInspection")
     @Override
     final boolean addConnection(final HttpExchange exchange){
         final HttpSession session = sessionHandler.getSession(exchange);
         final int maxConn = getMaxConnections(session, exchange);
 
-        if(!connections.containsKey(session))
-            connections.put(session, new AtomicInteger(0));
-
-        final AtomicInteger conn = connections.get(session);
-        final boolean exempt = canIgnoreConnectionLimit(session, exchange);
-
-        if(maxConn < 0){
-            if(!exempt){
-                synchronized(this){
-                    final int uMax = uConnMax.get();
-                    if(uMax < 0 || uConn.get() < uMax){
-                        conn.incrementAndGet();
-                        uConn.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                }
-            }else{
-                conn.incrementAndGet();
-                return true;
-            }
-        }else{
-            if(!exempt){
-                synchronized(this){
-                    final int umax = uConnMax.get();
-                    if(conn.get() < maxConn && (umax < 0 || uConn.get() < umax)){
-                        conn.incrementAndGet();
-                        uConn.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                }
-            }else{
-                final AtomicBoolean added = new AtomicBoolean(false);
-                conn.updateAndGet(operand -> {
-                    if(operand < maxConn) added.set(true);
-                    return operand < maxConn ? operand + 1 : operand;
-                });
-                return added.get();
-            }
-        }
+        if(canIgnoreConnectionLimit(session, exchange))
+            return addClientConnection(session, maxConn);
+
+        if(reserve(uConn, uConnMax.get()) < 0)
+            return false;
+        if(addClientConnection(session, maxConn))
+            return true;
+        uConn.decrementAndGet(); // client limit reached; release server connection
+        return false;
     }
 
     @Override
     final void deleteConnection(final HttpExchange exchange){
         final HttpSession session = sessionHandler.getSession(exchange);
-        if(connections.containsKey(session)){
-            connections.get(session).decrementAndGet();
-            if(!canIgnoreConnectionLimit(session, exchange))
-                uConn.decrementAndGet();
-        }
+        if(deleteClientConnection(session) && !canIgnoreConnectionLimit(session, exchange))
+            uConn.decrementAndGet();
     }
 
     @Override
@@ -180,7 +140,7 @@ public class ServerSessionThrottler extends ConnectionThrottler{
      * @since 03.05.00
      * @author Ktt Development
      */
-    public synchronized final void setMaxServerConnections(final int connections){
+    public final void setMaxServerConnections(final int connections){
         uConnMax.set(connections);
     }
 
@@ -193,7 +153,7 @@ public class ServerSessionThrottler extends ConnectionThrottler{
      * @since 03.05.00
      * @author Ktt Development
      */
-    public synchronized final int getMaxServerConnections(){
+    public final int getMaxServerConnections(){
         return uConnMax.get();
     }
 
@@ -22,11 +22,6 @@ import com.kttdevelopment.simplehttpserver.HttpSession;
 import com.kttdevelopment.simplehttpserver.HttpSessionHandler;
 import com.sun.net.httpserver.HttpExchange;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * Limits connections per http session. This can be used to limit simultaneous downloads.
  *
@@ -36,13 +31,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see ServerExchangeThrottler
  * @see ServerSessionThrottler
  * @since 03.03.00
- * @version 03.05.01
+ * @version 4.5.0
  * @author Ktt Development
  */
-public class SessionThrottler extends ConnectionThrottler {
+public class SessionThrottler extends KeyedConnectionThrottler<HttpSession> {
 
     private final HttpSessionHandler sessionHandler;
-    private final Map<HttpSession,AtomicInteger> connections = new ConcurrentHashMap<>();
 
     /**
      * Creates a throttler that allows no connections.
@@ -60,31 +54,12 @@ public class SessionThrottler extends ConnectionThrottler {
     @Override
     final boolean addConnection(final HttpExchange exchange){
         final HttpSession session = sessionHandler.getSession(exchange);
-        final int maxConn = getMaxConnections(session, exchange);
-
-        if(!connections.containsKey(session))
-            connections.put(session, new AtomicInteger(0));
-
-        final AtomicInteger conn = connections.get(session);
-
-        if(maxConn < 0){
-            conn.incrementAndGet();
-            return true;
-        }else{
-            final AtomicBoolean added = new AtomicBoolean(false);
-            conn.updateAndGet(operand -> {
-                if(operand < maxConn) added.set(true);
-                return operand < maxConn ? operand + 1 : operand;
-            });
-            return added.get();
-        }
+        return addClientConnection(session, getMaxConnections(session, exchange));
     }
 
     @Override
     final void deleteConnection(final HttpExchange exchange){
-        final HttpSession session = sessionHandler.getSession(exchange);
-        if(connections.containsKey(session))
-            connections.get(session).decrementAndGet();
+        deleteClientConnection(sessionHandler.getSession(exchange));
     }
 
     @Override
@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds exchanges refused by the throttler of a {@link ThrottledHandler} instead of closing them. Exchanges wait in the order they arrived until the throttler accepts them or the timeout passes. Exchanges that time out, or that arrive while the queue is full, are sent a response code with a <code>Retry-After</code> header so clients back off instead of retrying at once. <br>
+ * A waiting exchange holds its executor thread, so the capacity should be less than the amount of executor threads.
+ *
+ * @see ThrottledHandler
+ * @see MetricsHandler#addThrottleQueue(String, ThrottleQueue)
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+public class ThrottleQueue {
+
+    // slots freed by other handlers or over time are not signalled
+    private static final long RETRY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int capacity;
+    private final long timeout;
+    private final int responseCode;
+    private final int retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger(0);
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+
+    /**
+     * Creates a throttle queue that responds with <code>503 Service Unavailable</code> and a <code>Retry-After</code> of 1 second.
+     *
+     * @param capacity maximum amount of waiting exchanges
+     * @param timeout how long an exchange can wait in milliseconds
+     * @throws IllegalArgumentException if the capacity or timeout is negative
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public ThrottleQueue(final int capacity, final long timeout){
+        this(capacity, timeout, 503, 1);
+    }
+
+    /**
+     * Creates a throttle queue.
+     *
+     * @param capacity maximum amount of waiting exchanges
+     * @param timeout how long an exchange can wait in milliseconds
+     * @param responseCode response code sent to exchanges that could not be accepted, usually <code>429</code> or <code>503</code>
+     * @param retryAfter seconds a client should wait before retrying
+     * @throws IllegalArgumentException if the capacity, timeout or retry after is negative
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public ThrottleQueue(final int capacity, final long timeout, final int responseCode, final int retryAfter){
+        if(capacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative");
+        if(timeout < 0)
+            throw new IllegalArgumentException("Timeout must not be negative");
+        if(retryAfter < 0)
+            throw new IllegalArgumentException("Retry after must not be negative");
+        this.capacity       = capacity;
+        this.timeout        = TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.responseCode   = responseCode;
+        this.retryAfter     = retryAfter;
+    }
+
+//
+
+    /**
+     * Adds a connection to the throttler, waiting in the queue if it is refused.
+     *
+     * @param throttler throttler
+     * @param exchange exchange to process
+     * @return if the exchange was added before the timeout
+     * @throws InterruptedException if the thread was interrupted while waiting
+     *
+     * @see #release()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final boolean acquire(final ConnectionThrottler throttler, final HttpExchange exchange) throws InterruptedException{
+        if(waiting.get() == 0 && throttler.addConnection(exchange))
+            return true;
+        if(KeyedConnectionThrottler.reserve(waiting, capacity) < 0){
+            overflowed.increment();
+            return false;
+        }
+
+        final long start = System.nanoTime();
+        final long deadline = start + timeout;
+        try{
+            lock.lockInterruptibly();
+        }catch(final InterruptedException e){
+            waiting.decrementAndGet();
+            throw e;
+        }
+        try{
+            while(true){
+                if(throttler.addConnection(exchange)){
+                    admitted.increment();
+                    return true;
+                }
+                final long remaining = deadline - System.nanoTime();
+                if(remaining <= 0){
+                    timedOut.increment();
+                    return false;
+                }
+                released.awaitNanos(Math.min(remaining, RETRY)); // woken in arrival order; fair lock keeps that order
+            }
+        }finally{
+            lock.unlock();
+            waitTime.add(System.nanoTime() - start);
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wakes waiting exchanges after a connection was removed from the throttler.
+     *
+     * @see #acquire(ConnectionThrottler, HttpExchange)
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void release(){
+        if(waiting.get() == 0)
+            return;
+        lock.lock();
+        try{
+            released.signalAll();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the response code and <code>Retry-After</code> header to an exchange that could not be accepted.
+     *
+     * @param exchange exchange to process
+     * @throws IOException internal server error
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    final void reject(final HttpExchange exchange) throws IOException{
+        try{
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfter));
+            exchange.sendResponseHeaders(responseCode, -1);
+        }finally{
+            exchange.close();
+        }
+    }
+
+//
+
+    /**
+     * Returns the maximum amount of waiting exchanges.
+     *
+     * @return capacity
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Returns how long an exchange can wait.
+     *
+     * @return timeout in milliseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTimeout(){
+        return TimeUnit.NANOSECONDS.toMillis(timeout);
+    }
+
+    /**
+     * Returns the response code sent to exchanges that could not be accepted.
+     *
+     * @return response code
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getResponseCode(){
+        return responseCode;
+    }
+
+    /**
+     * Returns the seconds a client is told to wait before retrying.
+     *
+     * @return retry after in seconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getRetryAfter(){
+        return retryAfter;
+    }
+
+    /**
+     * Returns the amount of exchanges currently waiting.
+     *
+     * @return waiting exchanges
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final int getWaiting(){
+        return waiting.get();
+    }
+
+    /**
+     * Returns the total amount of exchanges that were accepted after waiting.
+     *
+     * @return admitted exchanges
+     *
+     * @see #getTimedOut()
+     * @see #getOverflowed()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getAdmitted(){
+        return admitted.sum();
+    }
+
+    /**
+     * Returns the total amount of exchanges that waited until the timeout.
+     *
+     * @return timed out exchanges
+     *
+     * @see #getAdmitted()
+     * @see #getOverflowed()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTimedOut(){
+        return timedOut.sum();
+    }
+
+    /**
+     * Returns the total amount of exchanges that were rejected because the queue was full.
+     *
+     * @return overflowed exchanges
+     *
+     * @see #getAdmitted()
+     * @see #getTimedOut()
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getOverflowed(){
+        return overflowed.sum();
+    }
+
+    /**
+     * Returns the total time exchanges spent waiting, including exchanges that timed out.
+     *
+     * @return total wait time in nanoseconds
+     *
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    public final long getTotalWaitTime(){
+        return waitTime.sum();
+    }
+
+    @Override
+    public String toString(){
+        return
+            "ThrottleQueue"     + '{' +
+            "capacity"          + '=' +     capacity            + ", " +
+            "timeout"           + '=' +     getTimeout()        + ", " +
+            "responseCode"      + '=' +     responseCode        + ", " +
+            "retryAfter"        + '=' +     retryAfter          + ", " +
+            "waiting"           + '=' +     waiting             + ", " +
+            "admitted"          + '=' +     getAdmitted()       + ", " +
+            "timedOut"          + '=' +     getTimedOut()       + ", " +
+            "overflowed"        + '=' +     getOverflowed()     +
+            '}';
+    }
+
+}
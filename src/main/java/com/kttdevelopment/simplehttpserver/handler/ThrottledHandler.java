@@ -18,26 +18,32 @@
 
 package com.kttdevelopment.simplehttpserver.handler;
 
+import com.kttdevelopment.simplehttpserver.jfr.ThrottleEvent;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
 
 /**
- * This handler limits the amount of active connections to a handler. This can be used to limit the amount of simultaneous downloads, or prevent duplicate connections by users.
+ * This handler limits the amount of active connections to a handler. This can be used to limit the amount of simultaneous downloads, or prevent duplicate connections by users. <br>
+ * Refused exchanges are closed, unless a {@link ThrottleQueue} is used to have them wait for a connection and be sent a <code>Retry-After</code> response if none becomes available.
  *
  * @see ExchangeThrottler
  * @see ServerExchangeThrottler
  * @see SessionThrottler
  * @see ServerSessionThrottler
+ * @see AdaptiveThrottler
+ * @see RateThrottler
+ * @see ThrottleQueue
  * @since 03.03.00
- * @version 03.05.07
+ * @version 4.5.0
  * @author Ktt Development
  */
 public class ThrottledHandler implements HttpHandler {
 
     private final HttpHandler     handler;
     private final ConnectionThrottler throttler;
+    private final ThrottleQueue queue;
 
     /**
      * Creates a throttled handler using a throttler.
@@ -55,20 +61,61 @@ public class ThrottledHandler implements HttpHandler {
      */
     @SuppressWarnings("ClassEscapesDefinedScope") // class is required for throttler to function, scope is locked to this package only; ignore visibility error
     public ThrottledHandler(final HttpHandler handler, final ConnectionThrottler throttler){
+        this(handler, throttler, null);
+    }
+
+    /**
+     * Creates a throttled handler using a throttler, where refused exchanges wait in a queue.
+     *
+     * @param handler handler to use
+     * @param throttler how to throttle connections
+     * @param queue where refused exchanges wait for a connection, or null to close them
+     *
+     * @see HttpHandler
+     * @see ThrottleQueue
+     * @since 4.5.0
+     * @author Ktt Development
+     */
+    @SuppressWarnings("ClassEscapesDefinedScope") // class is required for throttler to function, scope is locked to this package only; ignore visibility error
+    public ThrottledHandler(final HttpHandler handler, final ConnectionThrottler throttler, final ThrottleQueue queue){
         this.handler = handler;
         this.throttler = throttler;
+        this.queue = queue;
     }
 
     @Override
     public final void handle(final HttpExchange exchange) throws IOException{
-        if(throttler.addConnection(exchange)){
+        final ThrottleEvent event = new ThrottleEvent();
+        event.begin();
+        boolean accepted;
+        try{
+            accepted = queue != null ? queue.acquire(throttler, exchange) : throttler.addConnection(exchange);
+        }catch(final InterruptedException ignored){
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        event.end();
+        if(event.shouldCommit()){
+            event.context   = exchange.getHttpContext().getPath();
+            event.throttler = throttler.getClass().getName();
+            event.accepted  = accepted;
+            event.commit();
+        }
+
+        if(accepted){
             try{
                 handler.handle(exchange);
             }finally{
                 throttler.deleteConnection(exchange);
+                if(queue != null)
+                    queue.release();
             }
         }else{
-            exchange.close();
+            throttler.countRejection();
+            if(queue != null)
+                queue.reject(exchange);
+            else
+                exchange.close();
         }
     }
 
@@ -77,7 +124,8 @@ public class ThrottledHandler implements HttpHandler {
         return
             "ThrottledHandler"  + '{' +
             "handler"           + '=' +     handler     + ", " +
-            "throttler"         + '=' +     throttler   +
+            "throttler"         + '=' +     throttler   + ", " +
+            "queue"             + '=' +     queue       +
             '}';
     }
 
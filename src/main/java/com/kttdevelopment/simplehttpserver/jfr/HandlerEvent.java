@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2021 Ktt Development
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.kttdevelopment.simplehttpserver.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Records the time taken by the handler of a context. Applications do not use this class.
+ *
+ * @since 4.5.0
+ * @version 4.5.0
+ * @author Ktt Development
+ */
+@Name("com.kttdevelopment.simplehttpserver.HandlerExecution")
+@Label("Handler Execution")
+@Description("Execution of the handler for a context.")
+@Category("SimpleHttpServer")
+public final class HandlerEvent extends Event {
+
+    @Label("Context")
+    @Description("Context path")
+    public String context;
+
+    @Label("Method")
+    @Description("Request method")
+    public String method;
+
+    @Label("Status")
+    @Description("Response code, -1 if no response was sent")
+    public int status;
+
+}
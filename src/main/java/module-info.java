@@ -1,6 +1,7 @@
 module simplehttpserver {
 
     requires jdk.httpserver;
+    requires jdk.jfr;
     requires java.net.http; // test requirement
     exports com.kttdevelopment.simplehttpserver.handler;
     exports com.kttdevelopment.simplehttpserver;
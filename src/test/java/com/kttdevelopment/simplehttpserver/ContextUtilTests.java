@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 public final class ContextUtilTests {
 
@@ -95,4 +98,44 @@ public final class ContextUtilTests {
             Assertions.assertEquals(test.expected, ContextUtil.joinContexts(test.leadingSlash, test.trailingSlash, test.contexts), String.format("Incorrect context for #(%s, %s, %s)", test.leadingSlash, test.trailingSlash, Arrays.toString(test.contexts)));
     }
 
+    //
+
+    private static final Pattern forwardSlashRegex = Pattern.compile("/{2,}|\\\\+");
+    private static final Pattern stripSlashRegex = Pattern.compile("^\\s*/*|/*\\s*$");
+
+    private static String getRegexContext(final String context, final boolean leadingSlash, final boolean trailingSlash){
+        final String linSlash = forwardSlashRegex.matcher(context).replaceAll("/");
+        final String strippedSlash = stripSlashRegex.matcher(linSlash).replaceAll("");
+        return strippedSlash.length() == 0
+            ? leadingSlash || trailingSlash ? "/" : ""
+            : (leadingSlash ? "/" : "") + strippedSlash + (trailingSlash ? "/" : "");
+    }
+
+    @Test
+    public final void testRegexEquivalence(){
+        final Random random = new Random(0);
+        final char[] chars = {'a', 'b', '/', '/', '\\', ' ', '\t', '.'};
+
+        for(int i = 0; i < 10_000; i++){
+            final char[] context = new char[random.nextInt(12)];
+            for(int c = 0; c < context.length; c++)
+                context[c] = chars[random.nextInt(chars.length)];
+            final String str = new String(context);
+
+            for(final boolean leadingSlash : new boolean[]{true, false})
+                for(final boolean trailingSlash : new boolean[]{true, false})
+                    Assertions.assertEquals(getRegexContext(str, leadingSlash, trailingSlash), ContextUtil.getContext(str, leadingSlash, trailingSlash), String.format("Incorrect context for #(\"%s\", %s, %s)", str, leadingSlash, trailingSlash));
+        }
+    }
+
+    @Test
+    public final void testCacheRefill(){
+        for(int i = 0; i < 1_000; i++) // one-off contexts
+            ContextUtil.getContext(UUID.randomUUID().toString(), true, false);
+
+        final String context = ContextUtil.getContext("//testCacheRefill//", true, false);
+        Assertions.assertEquals("/testCacheRefill", context);
+        Assertions.assertSame(context, ContextUtil.getContext("//testCacheRefill//", true, false), "Context should be cached after the cache was full");
+    }
+
 }
@@ -0,0 +1,324 @@
+package com.kttdevelopment.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.handler.*;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a server over loopback with a weighted mix of requests and reports throughput and latency percentiles.
+ * <p>
+ * In closed loop mode each of the concurrent workers sends its next request as soon as the last one completes. In open loop mode requests are scheduled at a constant rate and latency is measured from the time a request was scheduled, not when it was sent, so a stalled server is not hidden by workers waiting on it (coordinated omission).
+ * <p>
+ * Run against a sample server with a file, form and server sent events context:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes com.kttdevelopment.simplehttpserver.LoadGenerator --concurrency 16 --duration 10 --rate 2000 --mix static=8,form=2,sse=1
+ * </pre>
+ * A rate of 0 runs in closed loop mode.
+ */
+public final class LoadGenerator {
+
+    /**
+     * A request sent by the generator.
+     */
+    @FunctionalInterface
+    public interface Request {
+
+        HttpResponse<?> send(final HttpClient client, final URI base) throws IOException, InterruptedException;
+
+    }
+
+    public static Request get(final String path){
+        return (client, base) -> client.send(HttpRequest.newBuilder(base.resolve(path)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    public static Request post(final String path, final String form){
+        return (client, base) -> client.send(
+            HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+    }
+
+    // completes once the stream is open, then disconnects
+    public static Request subscribe(final String path){
+        return (client, base) -> {
+            final HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(base.resolve(path)).header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.ofInputStream());
+            response.body().close();
+            return response;
+        };
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final int weight;
+        private final Request request;
+        private final ContextRecorder recorder = new ContextRecorder();
+
+        private Entry(final String name, final int weight, final Request request){
+            this.name       = name;
+            this.weight     = weight;
+            this.request    = request;
+        }
+
+    }
+
+    private final URI base;
+    private final int concurrency;
+    private final Duration duration;
+    private final double rate;
+    private final List<Entry> mix;
+    private final int totalWeight;
+
+    private LoadGenerator(final Builder builder){
+        base        = builder.base;
+        concurrency = builder.concurrency;
+        duration    = builder.duration;
+        rate        = builder.rate;
+        mix         = new ArrayList<>(builder.mix);
+        totalWeight = mix.stream().mapToInt(e -> e.weight).sum();
+    }
+
+    public final Result run() throws InterruptedException{
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        final ContextRecorder total = new ContextRecorder();
+
+        final long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        final AtomicLong tickets = new AtomicLong();
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+
+        for(int i = 0; i < concurrency; i++)
+            workers.execute(() -> {
+                while(!Thread.currentThread().isInterrupted()){
+                    final long scheduled;
+                    if(interval > 0){
+                        scheduled = start + tickets.getAndIncrement() * interval;
+                        if(scheduled >= end)
+                            break;
+                        long wait;
+                        while((wait = scheduled - System.nanoTime()) > 0)
+                            LockSupport.parkNanos(wait);
+                    }else{
+                        scheduled = System.nanoTime();
+                        if(scheduled >= end)
+                            break;
+                    }
+
+                    final Entry entry = pick();
+                    int code = 0;
+                    long bytes = 0;
+                    try{
+                        final HttpResponse<?> response = entry.request.send(client, base);
+                        code = response.statusCode();
+                        if(response.body() instanceof byte[])
+                            bytes = ((byte[]) response.body()).length;
+                    }catch(final IOException ignored){ // counted as no response
+                    }catch(final InterruptedException ignored){
+                        break;
+                    }
+                    final long latency = System.nanoTime() - scheduled;
+                    entry.recorder.record(code, bytes, latency);
+                    total.record(code, bytes, latency);
+                }
+            });
+
+        workers.shutdown();
+        if(!workers.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS))
+            workers.shutdownNow();
+
+        final Map<String,ContextStatistics> statistics = new LinkedHashMap<>();
+        for(final Entry entry : mix)
+            statistics.put(entry.name, entry.recorder.getStatistics(entry.name));
+        return new Result(System.nanoTime() - start, interval > 0, statistics, total.getStatistics("total"));
+    }
+
+    private Entry pick(){
+        int target = ThreadLocalRandom.current().nextInt(totalWeight);
+        for(final Entry entry : mix)
+            if((target -= entry.weight) < 0)
+                return entry;
+        return mix.get(mix.size() - 1);
+    }
+
+    //
+
+    public static final class Builder {
+
+        private final URI base;
+        private int concurrency = 8;
+        private Duration duration = Duration.ofSeconds(10);
+        private double rate = 0;
+        private final List<Entry> mix = new ArrayList<>();
+
+        public Builder(final URI base){
+            this.base = base;
+        }
+
+        public final Builder setConcurrency(final int concurrency){
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public final Builder setDuration(final Duration duration){
+            this.duration = duration;
+            return this;
+        }
+
+        // requests per second across all workers, 0 for closed loop
+        public final Builder setRate(final double rate){
+            this.rate = rate;
+            return this;
+        }
+
+        public final Builder addRequest(final String name, final int weight, final Request request){
+            mix.add(new Entry(name, weight, request));
+            return this;
+        }
+
+        public final LoadGenerator build(){
+            if(mix.isEmpty())
+                throw new IllegalStateException("No requests to send");
+            return new LoadGenerator(this);
+        }
+
+    }
+
+    public static final class Result {
+
+        private static final double[] percentiles = {50, 90, 99, 99.9};
+
+        private final long elapsed;
+        private final boolean openLoop;
+        private final Map<String,ContextStatistics> statistics;
+        private final ContextStatistics total;
+
+        private Result(final long elapsed, final boolean openLoop, final Map<String,ContextStatistics> statistics, final ContextStatistics total){
+            this.elapsed    = elapsed;
+            this.openLoop   = openLoop;
+            this.statistics = Collections.unmodifiableMap(statistics);
+            this.total      = total;
+        }
+
+        public final Map<String,ContextStatistics> getStatistics(){
+            return statistics;
+        }
+
+        public final ContextStatistics getTotal(){
+            return total;
+        }
+
+        public final long getErrors(){
+            return total.getResponses(0);
+        }
+
+        public final double getThroughput(){
+            return total.getRequests() / (elapsed / 1e9);
+        }
+
+        @Override
+        public String toString(){
+            final StringBuilder OUT = new StringBuilder();
+            OUT.append(String.format("%s loop, %.1f s, %.1f requests/s, %d errors%n", openLoop ? "Open" : "Closed", elapsed / 1e9, getThroughput(), getErrors()));
+            OUT.append(String.format("%-10s %10s %8s", "request", "count", "errors"));
+            for(final double percentile : percentiles)
+                OUT.append(String.format(" %9s", "p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile))));
+            OUT.append(String.format(" %9s%n", "max"));
+
+            final List<ContextStatistics> rows = new ArrayList<>(statistics.values());
+            rows.add(total);
+            for(final ContextStatistics row : rows){
+                OUT.append(String.format("%-10s %10d %8d", row.getContext(), row.getRequests(), row.getResponses(0)));
+                for(final double percentile : percentiles)
+                    OUT.append(String.format(" %9s", millis(row.getLatency(percentile))));
+                OUT.append(String.format(" %9s%n", millis(row.getMaxLatency())));
+            }
+            return OUT.toString();
+        }
+
+        private static String millis(final long nanos){
+            return String.format("%.2fms", nanos / 1e6);
+        }
+
+    }
+
+    //
+
+    /**
+     * Creates a sample server with a file at <code>/static/index.html</code>, a form at <code>/form</code> and server sent events at <code>/events</code>.
+     */
+    static SimpleHttpServer createServer(final int port, final File dir) throws IOException{
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2)));
+
+        final File file = new File(dir, "index.html");
+        Files.write(file.toPath(), ("<html>" + "x".repeat(4096) + "</html>").getBytes());
+        final FileHandler fileHandler = new FileHandler();
+        fileHandler.addFile(file, ByteLoadingOption.PRELOAD);
+        server.createContext("static", fileHandler);
+
+        server.createContext("form", (SimpleHttpHandler) exchange -> exchange.send(String.valueOf(exchange.getPostMap().size())));
+
+        final SSEHandler sseHandler = new SSEHandler();
+        server.createContext("events", exchange -> {
+            sseHandler.handle(exchange);
+            sseHandler.push("ping"); // removes listeners that have disconnected
+        });
+
+        return server;
+    }
+
+    static Builder addDefaultRequests(final Builder builder, final int staticWeight, final int formWeight, final int sseWeight){
+        if(staticWeight > 0)
+            builder.addRequest("static", staticWeight, get("/static/index.html"));
+        if(formWeight > 0)
+            builder.addRequest("form", formWeight, post("/form", "name=Ktt+Development&email=user%40example.com&message=Hello%2C+world%21"));
+        if(sseWeight > 0)
+            builder.addRequest("sse", sseWeight, subscribe("/events"));
+        return builder;
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException{
+        final Map<String,String> options = new HashMap<>();
+        for(int i = 0; i + 1 < args.length; i += 2)
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+
+        final int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        final Map<String,Integer> weights = new HashMap<>();
+        for(final String pair : options.getOrDefault("mix", "static=8,form=2,sse=1").split(",")){
+            final String[] kv = pair.split("=");
+            weights.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+
+        final File dir = Files.createTempDirectory("loadgenerator").toFile();
+        final SimpleHttpServer server = createServer(port, dir);
+        server.start();
+        try{
+            final Builder builder = new Builder(URI.create("http://localhost:" + port))
+                .setConcurrency(Integer.parseInt(options.getOrDefault("concurrency", "8")))
+                .setDuration(Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "10"))))
+                .setRate(Double.parseDouble(options.getOrDefault("rate", "0")));
+            addDefaultRequests(builder, weights.getOrDefault("static", 0), weights.getOrDefault("form", 0), weights.getOrDefault("sse", 0));
+            System.out.print(builder.build().run());
+        }finally{
+            server.stop();
+            for(final File file : Objects.requireNonNull(dir.listFiles()))
+                Files.delete(file.toPath());
+            Files.delete(dir.toPath());
+            System.exit(0);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.kttdevelopment.simplehttpserver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+public final class LoadGeneratorTests {
+
+    @TempDir
+    public final File dir = new File(UUID.randomUUID().toString());
+
+    @Test
+    public final void closedLoop() throws IOException, InterruptedException{
+        final int port = 8080;
+        final SimpleHttpServer server = LoadGenerator.createServer(port, dir);
+        server.start();
+
+        final LoadGenerator.Result result;
+        try{
+            result = LoadGenerator.addDefaultRequests(new LoadGenerator.Builder(URI.create("http://localhost:" + port)), 8, 2, 1)
+                .setConcurrency(4)
+                .setDuration(Duration.ofSeconds(1))
+                .build()
+                .run();
+        }finally{
+            server.stop();
+        }
+
+        Assertions.assertEquals(0, result.getErrors(), result.toString());
+        Assertions.assertTrue(result.getStatistics().get("static").getRequests() > 0, result.toString());
+        Assertions.assertTrue(result.getStatistics().get("static").getBytesWritten() > 4096, result.toString());
+        Assertions.assertTrue(result.getStatistics().get("form").getRequests() > 0, result.toString());
+        Assertions.assertTrue(result.getTotal().getLatency(99.9) >= result.getTotal().getMedianLatency(), result.toString());
+        Assertions.assertTrue(result.toString().contains("p99.9"));
+    }
+
+    @Test
+    public final void openLoop() throws IOException, InterruptedException{
+        final int port = 8080;
+        final SimpleHttpServer server = LoadGenerator.createServer(port, dir);
+        server.start();
+
+        final LoadGenerator.Result result;
+        try{
+            result = LoadGenerator.addDefaultRequests(new LoadGenerator.Builder(URI.create("http://localhost:" + port)), 1, 1, 0)
+                .setConcurrency(4)
+                .setDuration(Duration.ofSeconds(1))
+                .setRate(100)
+                .build()
+                .run();
+        }finally{
+            server.stop();
+        }
+
+        Assertions.assertEquals(100, result.getTotal().getRequests(), "Open loop should send the scheduled amount of requests\n" + result);
+        Assertions.assertEquals(0, result.getErrors(), result.toString());
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.kttdevelopment.simplehttpserver;
+
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public final class LoadShedderTests {
+
+    @Test
+    public final void limits(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadShedder(0, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadShedder(10, 5));
+    }
+
+    @Test
+    public final void lifo() throws InterruptedException{
+        final LoadShedder shedder = new LoadShedder(1, 50);
+        final Deque<Runnable> runs = new ArrayDeque<>();
+        final Executor executor = shedder.wrap(runs::add);
+        final List<String> order = new ArrayList<>();
+
+        // two exchanges over the target but under the interval, in consecutive intervals
+        for(int i = 0; i < 2; i++){
+            Thread.sleep(60);
+            executor.execute(() -> order.add(shedder.shed() ? "shed" : "handled"));
+            Thread.sleep(5);
+            runs.poll().run();
+        }
+        Assertions.assertTrue(shedder.isOverloaded(), shedder.toString());
+        Assertions.assertTrue(shedder.getMinSojourn() > 0);
+        Assertions.assertEquals(List.of("handled", "shed"), order, "Exchange should only be shed once overloaded");
+
+        order.clear();
+        executor.execute(() -> order.add("first"));
+        executor.execute(() -> order.add("second"));
+        Assertions.assertEquals(2, shedder.getWaiting());
+        runs.poll().run();
+        runs.poll().run();
+        Assertions.assertEquals(0, shedder.getWaiting());
+        Assertions.assertEquals(List.of("second", "first"), order, "Newest exchange should start first while overloaded");
+
+        shedder.setLifo(false);
+        order.clear();
+        executor.execute(() -> order.add("first"));
+        executor.execute(() -> order.add("second"));
+        runs.poll().run();
+        runs.poll().run();
+        Assertions.assertEquals(List.of("first", "second"), order);
+    }
+
+    @Test
+    public final void carry() throws IOException, InterruptedException{
+        final LoadShedder shedder = new LoadShedder(1, 50);
+        final Deque<Runnable> runs = new ArrayDeque<>();
+        final Executor executor = shedder.wrap(runs::add);
+        final List<String> order = new ArrayList<>();
+        final HttpHandler handler = exchange -> order.add(shedder.shed() ? "shed" : "handled");
+
+        Assertions.assertSame(handler, LoadShedder.carry(handler), "Handler should not change outside the load shedder");
+
+        final List<HttpHandler> handoff = new ArrayList<>();
+        executor.execute(() -> handoff.add(LoadShedder.carry(handler)));
+        runs.poll().run();
+        Thread.sleep(60); // waits in another queue past the interval
+        handoff.get(0).handle(null);
+        Assertions.assertEquals(List.of("shed"), order, "Time waiting after the hand off should count towards the sojourn time");
+    }
+
+    @Test
+    public final void loadShedder() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final LoadShedder shedder = new LoadShedder(5, 50);
+        server.setLoadShedder(shedder);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        server.setExecutor(executor);
+        Assertions.assertSame(executor, server.getExecutor());
+        server.setContextStatisticsEnabled(true);
+        server.createContext("", (SimpleHttpHandler) exchange -> {
+            try{ Thread.sleep(20);
+            }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        });
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port)).build();
+        try{
+            final List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+            for(int i = 0; i < 40; i++)
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+
+            int ok = 0, unavailable = 0;
+            for(final CompletableFuture<HttpResponse<Void>> response : responses){
+                final int code = response.join().statusCode();
+                if(code == 200) ok++;
+                else if(code == 503) unavailable++;
+            }
+            Assertions.assertTrue(ok > 0, "Some exchanges should be handled, was " + shedder);
+            Assertions.assertTrue(unavailable > 0, "Exchanges that waited too long should be shed, was " + shedder);
+            Assertions.assertEquals(unavailable, shedder.getShed());
+            Assertions.assertEquals(unavailable, server.getContextStatistics("").getResponses(5));
+        }finally{
+            server.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public final void bulkhead() throws IOException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final LoadShedder shedder = new LoadShedder(5, 50);
+        server.setLoadShedder(shedder);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        final Bulkhead bulkhead = new Bulkhead(1, -1);
+        server.createContext("", (SimpleHttpHandler) exchange -> {
+            try{ Thread.sleep(20);
+            }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, null, bulkhead);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port)).build();
+        try{
+            final List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+            for(int i = 0; i < 40; i++)
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+
+            int unavailable = 0;
+            for(final CompletableFuture<HttpResponse<Void>> response : responses)
+                if(response.join().statusCode() == 503)
+                    unavailable++;
+            Assertions.assertTrue(unavailable > 0, "Exchanges that waited too long in the bulkhead should be shed, was " + shedder);
+            Assertions.assertEquals(unavailable, shedder.getShed());
+        }finally{
+            server.stop();
+            bulkhead.close();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.kttdevelopment.simplehttpserver.handlers;
+
+import com.kttdevelopment.simplehttpserver.SimpleHttpHandler;
+import com.kttdevelopment.simplehttpserver.SimpleHttpServer;
+import com.kttdevelopment.simplehttpserver.handler.FilteredHandler;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.*;
+
+public final class FilteredHandlerTests {
+
+    @Test
+    public void filters() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final HttpHandler handler = new FilteredHandler.Builder()
+            .before(exchange -> order.add("before"))
+            .before(exchange -> {
+                if(exchange.getRequestURI().getPath().endsWith("/denied")){
+                    exchange.sendResponseHeaders(403, -1);
+                    exchange.close();
+                    return false;
+                }
+                return true;
+            })
+            .around((exchange, next) -> {
+                order.add("around 1");
+                next.handle(exchange);
+                order.add("around 1 end");
+            })
+            .around((exchange, next) -> {
+                order.add("around 2");
+                next.handle(exchange);
+            })
+            .after(exchange -> order.add("after"))
+            .build((SimpleHttpHandler) exchange -> {
+                order.add("handler");
+                exchange.send("filtered");
+            });
+
+        server.createContext("", handler);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+        try{
+            Assertions.assertEquals("filtered", client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString()).body());
+            Assertions.assertEquals(List.of("before", "around 1", "around 2", "handler", "around 1 end", "after"), order);
+
+            order.clear();
+            Assertions.assertEquals(403, client.send(HttpRequest.newBuilder().uri(URI.create(url + "/denied")).build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+            Assertions.assertEquals(List.of("before"), order, "Before filter should stop the exchange");
+        }finally{
+            server.stop();
+        }
+    }
+
+    @Test
+    public void merge(){
+        final HttpHandler handler = exchange -> { };
+        final FilteredHandler inner = new FilteredHandler.Builder().before(exchange -> true).after(exchange -> { }).build(handler);
+        final FilteredHandler outer = new FilteredHandler.Builder().before(exchange -> true).build(inner);
+
+        Assertions.assertSame(handler, outer.getHandler(), "Before filters should be merged into the inner handler");
+        Assertions.assertSame(inner, new FilteredHandler.Builder().after(exchange -> { }).build(inner).getHandler(), "After filters can not be merged");
+    }
+
+    @Test
+    public void afterExceptions(){
+        final List<String> order = new ArrayList<>();
+        final HttpHandler handler = new FilteredHandler.Builder()
+            .after(exchange -> {
+                throw new IllegalStateException("after");
+            })
+            .after(exchange -> order.add("after"))
+            .build(exchange -> {
+                throw new IOException("handler");
+            });
+
+        final IOException e = Assertions.assertThrows(IOException.class, () -> handler.handle(null), "Handler exception should not be hidden by an after filter");
+        Assertions.assertEquals("handler", e.getMessage());
+        Assertions.assertEquals(1, e.getSuppressed().length);
+        Assertions.assertEquals("after", e.getSuppressed()[0].getMessage());
+        Assertions.assertEquals(List.of("after"), order, "Remaining after filters should run");
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.kttdevelopment.simplehttpserver.handlers;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+public final class MetricsHandlerTests {
+
+    @TempDir
+    public final File dir = new File(UUID.randomUUID().toString());
+
+    @Test
+    public final void metrics() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.setHttpSessionHandler(new HttpSessionHandler());
+        server.setContextStatisticsEnabled(true);
+
+        final ServerExchangeThrottler throttler = new ServerExchangeThrottler(0);
+        server.createContext("throttled", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send("ok"), throttler));
+
+        final File file = new File(dir, "file.txt");
+        Files.write(file.toPath(), "file".getBytes());
+        final FileHandler fileHandler = new FileHandler();
+        fileHandler.addFile(file, ByteLoadingOption.PRELOAD);
+        server.createContext("files", fileHandler);
+
+        final SSEHandler sseHandler = new SSEHandler();
+
+        final MetricsHandler metrics = new MetricsHandler(server);
+        metrics.addThrottler("throttled", throttler);
+        metrics.addFileHandler("files", fileHandler);
+        metrics.addSSEHandler("events", sseHandler);
+        server.createContext("metrics", metrics);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+
+        try{
+            try{
+                client.send(HttpRequest.newBuilder().uri(URI.create(url + "/throttled")).build(), HttpResponse.BodyHandlers.ofString());
+            }catch(final IOException ignored){ } // throttled exchange is closed without a response
+            Assertions.assertEquals("file", client.send(HttpRequest.newBuilder().uri(URI.create(url + "/files/file.txt")).build(), HttpResponse.BodyHandlers.ofString()).body());
+
+            final HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(url + "/metrics")).build(), HttpResponse.BodyHandlers.ofString());
+            final String body = response.body();
+
+            Assertions.assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+            Assertions.assertTrue(body.contains("# TYPE simplehttpserver_requests_total counter\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_requests_total{context=\"/files\"} 1\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_responses_total{context=\"/files\",code=\"2xx\"} 1\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_response_bytes_total{context=\"/files\"} 4\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_request_duration_seconds{context=\"/files\",quantile=\"0.99\"} "), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_request_duration_seconds_count{context=\"/files\"} 1\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_executor_queue_depth 0\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_sessions "), body);
+            Assertions.assertTrue(Pattern.compile("^simplehttpserver_throttler_rejected_total\\{throttler=\"throttled\"} [1-9]", Pattern.MULTILINE).matcher(body).find(), body); // client may retry
+            Assertions.assertTrue(body.contains("simplehttpserver_file_cache_hits_total{handler=\"files\"} 1\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_file_cache_resident_bytes{handler=\"files\"} 4\n"), body);
+            Assertions.assertTrue(body.contains("simplehttpserver_sse_listeners{handler=\"events\"} 0\n"), body);
+
+            final String next = client.send(HttpRequest.newBuilder().uri(URI.create(url + "/metrics")).build(), HttpResponse.BodyHandlers.ofString()).body();
+            Assertions.assertTrue(next.contains("simplehttpserver_requests_total{context=\"/metrics\"} 1\n"), "Second scrape should render the current metrics");
+            Assertions.assertTrue(next.startsWith("# HELP ") && next.endsWith("\n"), "Second scrape should not contain data from the previous scrape");
+        }finally{
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.kttdevelopment.simplehttpserver.handlers;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.RouteHandler;
+import com.kttdevelopment.simplehttpserver.handler.RouteTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+
+public final class RouteHandlerTests {
+
+    @Test
+    public final void route() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+
+        final RouteHandler handler = new RouteHandler();
+        handler.addRoute("/users/{id}/orders/{oid}", (SimpleHttpHandler) exchange -> exchange.send(exchange.getPathParameters().get("id") + ':' + exchange.getPathParameters().get("oid")));
+        handler.addRoute("/users/new", (SimpleHttpHandler) exchange -> exchange.send("new"));
+        handler.addRoute(HttpRequestMethod.GET, "/users/{id}", (SimpleHttpHandler) exchange -> exchange.send("user " + exchange.getPathParameters().get("id")));
+        handler.addRoute("/files/*/raw", (SimpleHttpHandler) exchange -> exchange.send("raw"));
+        handler.addRoute("/static/**", (SimpleHttpHandler) exchange -> exchange.send("static"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.addRoute("/**/invalid", (SimpleHttpHandler) SimpleHttpExchange::close), "Catch all may only be the last segment");
+
+        final String context = "/api";
+        server.createContext(context, handler);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port + context;
+
+        try{
+            Assertions.assertEquals("12:34", get(client, url + "/users/12/orders/34").body(), "Route should capture path parameters");
+            Assertions.assertEquals("new", get(client, url + "/users/new").body(), "Literal segment should take priority over parameter");
+            Assertions.assertEquals("user 5", get(client, url + "/users/5").body(), "Route should capture path parameter");
+            Assertions.assertEquals("raw", get(client, url + "/files/a.txt/raw").body(), "Wildcard should match any segment");
+            Assertions.assertEquals("static", get(client, url + "/static/css/site.css").body(), "Catch all should match the rest of the path");
+            Assertions.assertEquals(404, get(client, url + "/missing").statusCode(), "Unmatched route should return not found");
+
+            final HttpResponse<String> post = client.send(HttpRequest.newBuilder().uri(URI.create(url + "/users/5")).POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(405, post.statusCode(), "Route with a different method should return method not allowed");
+
+            handler.removeRoute(HttpRequestMethod.GET, "/users/{id}");
+            Assertions.assertEquals(404, get(client, url + "/users/5").statusCode(), "Removed route should return not found");
+        }finally{
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void routeTable() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+
+        final RouteTable v1 = new RouteTable.Builder()
+            .addRoute("/a", (SimpleHttpHandler) exchange -> exchange.send("a1"))
+            .addRoute("/b", (SimpleHttpHandler) exchange -> exchange.send("b1"))
+            .build();
+        final RouteHandler handler = new RouteHandler(v1, exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+
+        final RouteTable.Builder builder = new RouteTable.Builder(v1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.addRoute("/**/invalid", (SimpleHttpHandler) SimpleHttpExchange::close).build(), "Catch all may only be the last segment");
+        Assertions.assertSame(v1, handler.getRouteTable(), "Invalid table should not replace the current table");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RouteTable.Builder().addRoute("get", "/users/{id}", (SimpleHttpHandler) SimpleHttpExchange::close).addRoute("GET", "/users/{name}", (SimpleHttpHandler) SimpleHttpExchange::close).build(), "Routes that only differ by parameter names should conflict");
+        Assertions.assertDoesNotThrow(() -> new RouteTable.Builder().addRoute("GET", "/users/{id}", (SimpleHttpHandler) SimpleHttpExchange::close).addRoute("POST", "/users/{name}", (SimpleHttpHandler) SimpleHttpExchange::close).build(), "Routes for different methods should not conflict");
+
+        final RouteTable v2 = new RouteTable.Builder(v1)
+            .removeRoute("/b")
+            .addRoute("/a", (SimpleHttpHandler) exchange -> exchange.send("a2"))
+            .addRoute("/c", (SimpleHttpHandler) exchange -> exchange.send("c2"))
+            .build();
+        Assertions.assertEquals(2, v1.getRoutes().size(), "Building a new table should not change the table it was copied from");
+
+        final String context = "/api";
+        server.createContext(context, handler);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port + context;
+
+        try{
+            Assertions.assertEquals("a1", get(client, url + "/a").body());
+            Assertions.assertEquals("b1", get(client, url + "/b").body());
+            Assertions.assertEquals(404, get(client, url + "/c").statusCode());
+
+            handler.setRouteTable(v2);
+
+            Assertions.assertEquals("a2", get(client, url + "/a").body(), "Replaced table should use new handler");
+            Assertions.assertEquals(404, get(client, url + "/b").statusCode(), "Replaced table should not contain removed route");
+            Assertions.assertEquals("c2", get(client, url + "/c").body(), "Replaced table should contain added route");
+        }finally{
+            server.stop();
+        }
+    }
+
+    private static HttpResponse<String> get(final HttpClient client, final String url) throws IOException, InterruptedException{
+        return client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.kttdevelopment.simplehttpserver.handlers.file;
+
+import com.kttdevelopment.simplehttpserver.SimpleHttpServer;
+import com.kttdevelopment.simplehttpserver.handler.ByteLoadingOption;
+import com.kttdevelopment.simplehttpserver.handler.FileHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+
+public final class FileHandlerConditionalTest {
+
+    @TempDir
+    public final File dir = new File(UUID.randomUUID().toString());
+
+    @Test
+    public final void conditionalTest() throws IOException, InterruptedException{
+        final int port = 8080;
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final FileHandler handler     = new FileHandler();
+        final String context          = "";
+
+        final File file = new File(dir, UUID.randomUUID().toString());
+        Files.write(file.toPath(), String.valueOf(System.currentTimeMillis()).getBytes());
+        handler.addFile(file);
+
+        server.createContext(context, handler);
+        server.start();
+
+        final String url = "http://localhost:" + port + context + '/' + file.getName();
+        final HttpClient client = HttpClient.newHttpClient();
+
+        try{
+            final HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(HttpURLConnection.HTTP_OK, response.statusCode());
+
+            final String etag = response.headers().firstValue("ETag").orElse(null);
+            final String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            Assertions.assertNotNull(etag, "File response should include an ETag");
+            Assertions.assertNotNull(lastModified, "File response should include a Last-Modified date");
+
+            Assertions.assertEquals(
+                HttpURLConnection.HTTP_NOT_MODIFIED,
+                client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Matching ETag should return not modified"
+            );
+            Assertions.assertEquals(
+                HttpURLConnection.HTTP_NOT_MODIFIED,
+                client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-Modified-Since", lastModified).build(), HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Unmodified file since last date should return not modified"
+            );
+            Assertions.assertEquals(
+                HttpURLConnection.HTTP_OK,
+                client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-None-Match", "\"stale\"").build(), HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Different ETag should return the file"
+            );
+            Assertions.assertEquals(
+                HttpURLConnection.HTTP_OK,
+                client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-None-Match", etag).POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Only GET and HEAD requests should return not modified"
+            );
+
+            final LocalDateTime date = LocalDateTime.parse(lastModified, DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US));
+            for(final String since : new String[]{
+                DateTimeFormatter.ofPattern("EEEE, dd-MMM-yy HH:mm:ss 'GMT'", Locale.US).format(date),
+                DateTimeFormatter.ofPattern("EEE MMM ppd HH:mm:ss yyyy", Locale.US).format(date)
+            })
+                Assertions.assertEquals(
+                    HttpURLConnection.HTTP_NOT_MODIFIED,
+                    client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-Modified-Since", since).build(), HttpResponse.BodyHandlers.ofString()).statusCode(),
+                    "Obsolete date format " + since + " should be accepted"
+                );
+        }finally{
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void reloadTest() throws IOException, InterruptedException{
+        final int port = 8080;
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final FileHandler handler     = new FileHandler();
+        final String context          = "";
+
+        final File file = new File(dir, UUID.randomUUID().toString());
+        Files.write(file.toPath(), "before".getBytes());
+        handler.addFile(file, ByteLoadingOption.MODLOAD);
+
+        server.createContext(context, handler);
+        server.start();
+
+        final String url = "http://localhost:" + port + context + '/' + file.getName();
+        final HttpClient client = HttpClient.newHttpClient();
+
+        try{
+            final String etag = client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").orElse(null);
+            Assertions.assertNotNull(etag);
+
+            Files.write(file.toPath(), "after".getBytes());
+            Assertions.assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+            final HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(HttpURLConnection.HTTP_OK, response.statusCode(), "Reloaded file should not match the previous ETag");
+            Assertions.assertEquals("after", response.body());
+            Assertions.assertNotEquals(etag, response.headers().firstValue("ETag").orElse(null));
+        }finally{
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.kttdevelopment.simplehttpserver.handlers.throttler;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.*;
+
+public final class AdaptiveThrottlerTest {
+
+    @Test
+    public final void limits(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveThrottler(1, 0, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveThrottler(20, 1, 10));
+
+        final AdaptiveThrottler throttler = new AdaptiveThrottler();
+        Assertions.assertEquals(20, throttler.getLimit());
+        Assertions.assertEquals(20, throttler.getMaxConnections(null));
+        Assertions.assertEquals(0, throttler.getShortRtt());
+    }
+
+    @Test
+    public final void adaptiveThrottler() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final int initial = 4;
+        final AdaptiveThrottler throttler = new AdaptiveThrottler(initial, 1, 64);
+        final int[] delay = {10};
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> {
+            try{ Thread.sleep(delay[0]);
+            }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, throttler));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port)).build();
+        final int clients = 4;
+
+        try{
+            // steady latency with the limit in use; limit grows
+            load(client, request, clients, 2);
+            final int grown = throttler.getLimit();
+            Assertions.assertTrue(grown > initial, "Limit should grow while latency is steady, was " + throttler);
+            Assertions.assertTrue(throttler.getShortRtt() > 0 && throttler.getLongRtt() > 0);
+
+            // latency rises; limit shrinks
+            delay[0] = 200;
+            load(client, request, clients, 3);
+            Assertions.assertTrue(throttler.getLimit() < grown, "Limit should shrink when latency rises, was " + throttler);
+            Assertions.assertTrue(throttler.getShortRtt() > throttler.getLongRtt());
+        }finally{
+            server.stop();
+        }
+    }
+
+    private static void load(final HttpClient client, final HttpRequest request, final int clients, final int seconds) throws InterruptedException{
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for(int i = 0; i < clients; i++)
+            executor.execute(() -> {
+                while(System.nanoTime() < end){
+                    try{
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                    }catch(final IOException ignored){ // rejected
+                    }catch(final InterruptedException ignored){
+                        return;
+                    }
+                }
+            });
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(seconds + 10, TimeUnit.SECONDS));
+    }
+
+}
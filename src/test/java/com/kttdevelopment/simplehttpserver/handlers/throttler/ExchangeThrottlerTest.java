@@ -62,4 +62,82 @@ public final class ExchangeThrottlerTest {
         server.stop();
     }
 
+    @Test
+    public void trackedClients() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExchangeThrottler throttler = new ExchangeThrottler(){
+            @Override
+            public final int getMaxConnections(final HttpExchange exchange){
+                return -1;
+            }
+        };
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> {
+            if(exchange.getURI().getPath().equals("/hold"))
+                try{ release.await();
+                }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, throttler));
+        server.start();
+
+        try{
+            final int addresses = 20;
+            for(int i = 1; i <= addresses; i++){ // each request from a different loopback address
+                Assertions.assertEquals("HTTP/1.1 200 OK", LoopbackClient.send(port, i, "/"), "Request from a new address should be allowed");
+                awaitTrackedClients(throttler, 0);
+            }
+            Assertions.assertEquals(1, throttler.getPeakTrackedClients(), "Clients without connections should not be tracked");
+
+            throttler.setMaxTrackedClients(1);
+            final Thread held = new Thread(() -> {
+                try{ LoopbackClient.send(port, 1, "/hold");
+                }catch(final IOException ignored){ }
+            });
+            held.start();
+            awaitTrackedClients(throttler, 1);
+            Assertions.assertNull(LoopbackClient.send(port, 2, "/"), "Request from a new address should be rejected when the table is full");
+            release.countDown();
+            held.join();
+            awaitTrackedClients(throttler, 0);
+            Assertions.assertEquals("HTTP/1.1 200 OK", LoopbackClient.send(port, 2, "/"), "Request should be allowed once the table has space");
+        }finally{
+            release.countDown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void zeroLimit() throws IOException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final ExchangeThrottler throttler = new ExchangeThrottler(){
+            @Override
+            public final int getMaxConnections(final HttpExchange exchange){
+                return 0;
+            }
+        };
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send("ok"), throttler));
+        server.start();
+
+        try{
+            for(int i = 1; i <= 3; i++)
+                Assertions.assertNull(LoopbackClient.send(port, i, "/"), "Request should be rejected when the limit is 0");
+            Assertions.assertEquals(0, throttler.getTrackedClients());
+        }finally{
+            server.stop();
+        }
+    }
+
+    private static void awaitTrackedClients(final ExchangeThrottler throttler, final int expected) throws InterruptedException{
+        final long end = System.currentTimeMillis() + 5000;
+        while(throttler.getTrackedClients() != expected && System.currentTimeMillis() < end)
+            Thread.sleep(10);
+        Assertions.assertEquals(expected, throttler.getTrackedClients());
+    }
+
 }
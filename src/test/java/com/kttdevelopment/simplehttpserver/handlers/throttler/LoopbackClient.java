@@ -0,0 +1,21 @@
+package com.kttdevelopment.simplehttpserver.handlers.throttler;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// sends requests from different loopback addresses so throttlers see them as different clients
+final class LoopbackClient {
+
+    private LoopbackClient(){ }
+
+    // returns the status line, or null if the connection was closed without a response
+    static String send(final int port, final int address, final String path) throws IOException{
+        try(final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port, InetAddress.getByName("127.0.0." + address), 0)){
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.kttdevelopment.simplehttpserver.handlers.throttler;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+
+public final class RateThrottlerTest {
+
+    @Test
+    public final void rateThrottler() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final RateThrottler throttler = new RateThrottler(0.1, 3);
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send("ok"), throttler));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port)).build();
+        try{
+            for(int i = 0; i < 3; i++)
+                Assertions.assertEquals("ok", client.send(request, HttpResponse.BodyHandlers.ofString()).body(), "Requests within the burst should be allowed");
+            Assertions.assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()), "Request after the burst should be throttled");
+            Assertions.assertTrue(throttler.getRejectedConnections() > 0);
+            Assertions.assertEquals(1, throttler.getBucketCount());
+        }finally{
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void bounded() throws IOException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final int max = 4;
+        final RateThrottler throttler = new RateThrottler(0.1, 3, max);
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send("ok"), throttler));
+        server.start();
+
+        try{
+            final int addresses = 20;
+            for(int i = 1; i <= addresses; i++) // each request from a different loopback address
+                Assertions.assertEquals("HTTP/1.1 200 OK", LoopbackClient.send(port, i, "/"), "First request from an address should be allowed");
+            Assertions.assertTrue(throttler.getBucketCount() <= max, "Buckets should not exceed the maximum, was " + throttler);
+            Assertions.assertEquals(addresses - max, throttler.getEvictions());
+        }finally{
+            server.stop();
+        }
+    }
+
+}
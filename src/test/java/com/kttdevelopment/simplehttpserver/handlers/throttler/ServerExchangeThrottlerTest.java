@@ -59,4 +59,73 @@ public final class ServerExchangeThrottlerTest {
         server.stop();
     }
 
+    @Test
+    public final void rollback() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ServerExchangeThrottler throttler = new ServerExchangeThrottler(2){
+            @Override
+            public final int getMaxConnections(final HttpExchange exchange){
+                return 1;
+            }
+        };
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> {
+            try{ release.await();
+            }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, throttler));
+        server.start();
+
+        final ExecutorService held = Executors.newCachedThreadPool();
+        try{
+            final Future<String> first = held.submit(() -> LoopbackClient.send(port, 1, "/"));
+            for(int i = 0; i < 500 && throttler.getTrackedClients() < 1; i++)
+                Thread.sleep(10);
+
+            // reserves a server connection, then fails the address limit
+            for(int i = 0; i < 5; i++)
+                Assertions.assertNull(LoopbackClient.send(port, 1, "/"), "Request over the address limit should be rejected");
+
+            final Future<String> second = held.submit(() -> LoopbackClient.send(port, 2, "/"));
+            for(int i = 0; i < 500 && throttler.getTrackedClients() < 2; i++)
+                Thread.sleep(10);
+            release.countDown();
+            Assertions.assertEquals("HTTP/1.1 200 OK", first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("HTTP/1.1 200 OK", second.get(5, TimeUnit.SECONDS), "Rejected requests should release their server connection");
+        }catch(final ExecutionException | TimeoutException e){
+            Assertions.fail(e);
+        }finally{
+            release.countDown();
+            held.shutdownNow();
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void zeroLimit() throws IOException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final ServerExchangeThrottler throttler = new ServerExchangeThrottler(){
+            @Override
+            public final int getMaxConnections(final HttpExchange exchange){
+                return 0;
+            }
+        };
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send("ok"), throttler));
+        server.start();
+
+        try{
+            for(int i = 1; i <= 3; i++)
+                Assertions.assertNull(LoopbackClient.send(port, i, "/"), "Request should be rejected when the limit is 0");
+            Assertions.assertEquals(0, throttler.getTrackedClients());
+        }finally{
+            server.stop();
+        }
+    }
+
 }
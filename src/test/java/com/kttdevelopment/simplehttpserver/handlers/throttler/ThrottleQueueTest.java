@@ -0,0 +1,110 @@
+package com.kttdevelopment.simplehttpserver.handlers.throttler;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.*;
+
+public final class ThrottleQueueTest {
+
+    @Test
+    public final void limits(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ThrottleQueue(-1, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ThrottleQueue(1, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ThrottleQueue(1, 100, 429, -1));
+
+        final ThrottleQueue queue = new ThrottleQueue(4, 100);
+        Assertions.assertEquals(503, queue.getResponseCode());
+        Assertions.assertEquals(1, queue.getRetryAfter());
+        Assertions.assertEquals(100, queue.getTimeout());
+    }
+
+    @Test
+    public final void throttleQueue() throws IOException, InterruptedException, ExecutionException, TimeoutException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ServerExchangeThrottler throttler = new ServerExchangeThrottler(1);
+        final ThrottleQueue queue = new ThrottleQueue(1, 5000, 429, 5);
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> {
+            if(exchange.getURI().getPath().equals("/hold"))
+                try{ release.await();
+                }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, throttler, queue));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+        try{
+            final CompletableFuture<HttpResponse<String>> held = client.sendAsync(HttpRequest.newBuilder(URI.create(url + "/hold")).build(), HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && server.getActiveExchanges() < 1; i++)
+                Thread.sleep(10);
+
+            final CompletableFuture<HttpResponse<String>> waiting = client.sendAsync(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && queue.getWaiting() < 1; i++)
+                Thread.sleep(10);
+            Assertions.assertEquals(1, queue.getWaiting());
+
+            // queue is full
+            final HttpResponse<String> overflow = client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(429, overflow.statusCode());
+            Assertions.assertEquals("5", overflow.headers().firstValue("Retry-After").orElse(null));
+            Assertions.assertEquals(1, queue.getOverflowed());
+
+            release.countDown();
+            Assertions.assertEquals("ok", held.get(5, TimeUnit.SECONDS).body());
+            Assertions.assertEquals("ok", waiting.get(5, TimeUnit.SECONDS).body(), "Queued exchange should be handled once a connection is available");
+            Assertions.assertEquals(1, queue.getAdmitted());
+            Assertions.assertTrue(queue.getTotalWaitTime() > 0);
+        }finally{
+            release.countDown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void timeout() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ThrottleQueue queue = new ThrottleQueue(4, 200);
+        server.createContext("", new ThrottledHandler((SimpleHttpHandler) exchange -> {
+            try{ release.await();
+            }catch(final InterruptedException ignored){ }
+            exchange.send("ok");
+        }, new ServerExchangeThrottler(1), queue));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port)).build();
+        try{
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            for(int i = 0; i < 500 && server.getActiveExchanges() < 1; i++)
+                Thread.sleep(10);
+
+            final long start = System.nanoTime();
+            final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200), "Exchange should wait until the timeout");
+            Assertions.assertEquals(503, response.statusCode());
+            Assertions.assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+            Assertions.assertEquals(1, queue.getTimedOut());
+            Assertions.assertEquals(0, queue.getWaiting());
+        }finally{
+            release.countDown();
+            server.stop();
+        }
+    }
+
+}
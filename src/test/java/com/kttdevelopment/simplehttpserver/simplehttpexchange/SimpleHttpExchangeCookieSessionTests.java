@@ -2,6 +2,7 @@ package com.kttdevelopment.simplehttpserver.simplehttpexchange;
 
 import com.kttdevelopment.simplehttpserver.*;
 import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -63,4 +64,31 @@ public final class SimpleHttpExchangeCookieSessionTests {
         server.stop();
     }
 
+    @Test
+    public final void testDuplicateSessionID() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final HttpSessionHandler sessionHandler = new HttpSessionHandler(){
+            @Override
+            public final String assignSessionID(final HttpExchange exchange){
+                return "fixed";
+            }
+        };
+        server.setHttpSessionHandler(sessionHandler);
+        server.createContext("", (SimpleHttpHandler) exchange -> exchange.send(server.getHttpSession(exchange).getSessionID()));
+        server.start();
+
+        try{
+            final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port)).build();
+            final HttpClient client = HttpClient.newHttpClient();
+
+            Assertions.assertEquals("fixed", client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            Assertions.assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()), "A session id that is always in use should fail instead of retrying forever");
+            Assertions.assertEquals(1, sessionHandler.getSessionCount());
+        }finally{
+            server.stop();
+        }
+    }
+
 }
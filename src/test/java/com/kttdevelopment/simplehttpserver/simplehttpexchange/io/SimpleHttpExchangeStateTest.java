@@ -0,0 +1,83 @@
+package com.kttdevelopment.simplehttpserver.simplehttpexchange.io;
+
+import com.kttdevelopment.simplehttpserver.SimpleHttpHandler;
+import com.kttdevelopment.simplehttpserver.SimpleHttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SimpleHttpExchangeStateTest {
+
+    @Test
+    public final void stateTest() throws IOException, ExecutionException, InterruptedException{
+        final int port = 8080;
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final String context          = "";
+
+        final AtomicReference<Throwable> sendTwice     = new AtomicReference<>();
+        final AtomicReference<Throwable> cookieAfter   = new AtomicReference<>();
+        final AtomicReference<Throwable> closeTwice    = new AtomicReference<>();
+        final AtomicReference<Throwable> sendClosed    = new AtomicReference<>();
+        final CountDownLatch handled       = new CountDownLatch(1);
+        final CountDownLatch handledClosed = new CountDownLatch(1);
+
+        server.createContext(context, (SimpleHttpHandler) exchange -> {
+            exchange.send("first");
+            try{
+                exchange.send("second");
+            }catch(final Throwable e){
+                sendTwice.set(e);
+            }
+            try{
+                exchange.setCookie("key", "value");
+            }catch(final Throwable e){
+                cookieAfter.set(e);
+            }
+            try{
+                exchange.close();
+                exchange.close();
+            }catch(final Throwable e){
+                closeTwice.set(e);
+            }
+            handled.countDown();
+        });
+        server.createContext("closed", (SimpleHttpHandler) exchange -> {
+            exchange.close();
+            try{
+                exchange.send("closed");
+            }catch(final Throwable e){
+                sendClosed.set(e);
+            }
+            handledClosed.countDown();
+        });
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port + context;
+
+        try{
+            final String response = client.sendAsync(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(HttpResponse::body).get();
+
+            Assertions.assertEquals("first", response, "Client data did not match server data");
+            Assertions.assertTrue(handled.await(5, TimeUnit.SECONDS), "Handler did not complete");
+            Assertions.assertTrue(sendTwice.get() instanceof IllegalStateException, "Sending a response twice should throw an illegal state exception");
+            Assertions.assertTrue(cookieAfter.get() instanceof IllegalStateException, "Setting a cookie after the response was sent should throw an illegal state exception");
+            Assertions.assertNull(closeTwice.get(), "Closing an exchange twice should have no effect");
+
+            try{
+                client.sendAsync(HttpRequest.newBuilder().uri(URI.create(url + "/closed")).build(), HttpResponse.BodyHandlers.ofString()).get();
+            }catch(final ExecutionException ignored){ }
+            Assertions.assertTrue(handledClosed.await(5, TimeUnit.SECONDS), "Handler did not complete");
+            Assertions.assertTrue(sendClosed.get() instanceof IllegalStateException, "Sending a response after the exchange was closed should throw an illegal state exception");
+        }finally{
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+public final class SimpleHttpServerAccessLogTests {
+
+    @TempDir
+    public final File dir = new File(UUID.randomUUID().toString());
+
+    @Test
+    public final void accessLog() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final File file = new File(dir, "access.log");
+        final AccessLog log = new AccessLog(file);
+        server.setAccessLog(log);
+        Assertions.assertSame(log, server.getAccessLog());
+
+        final String body = "logged";
+        server.createContext("", (SimpleHttpHandler) exchange -> exchange.send(body));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        try{
+            client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/path%20a?query")).build(), HttpResponse.BodyHandlers.ofString());
+            client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port)).POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        }finally{
+            server.stop();
+            log.close();
+        }
+
+        final List<String> lines = Files.readAllLines(file.toPath());
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.get(0).matches("127\\.0\\.0\\.1 - - \\[\\d{2}/\\w{3}/\\d{4}:\\d{2}:\\d{2}:\\d{2} \\+0000] \"GET /path%20a HTTP/1\\.1\" 200 " + body.length() + " \\d+"), lines.get(0));
+        Assertions.assertTrue(lines.get(1).contains("\"POST / HTTP/1.1\" 200 " + body.length() + ' '), lines.get(1));
+        Assertions.assertEquals(2, log.getWritten());
+        Assertions.assertEquals(0, log.getDropped());
+    }
+
+    @Test
+    public final void rotation() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final File file = new File(dir, "access.log");
+        final AccessLog log = new AccessLog(file, 16, 1, 2); // rotate after every write
+        server.setAccessLog(log);
+        server.createContext("", (SimpleHttpHandler) exchange -> exchange.send(""));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        try{
+            for(int i = 0; i < 4; i++){
+                client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/" + i)).build(), HttpResponse.BodyHandlers.ofString());
+                Thread.sleep(50); // separate writes
+            }
+        }finally{
+            server.stop();
+            log.close();
+        }
+
+        Assertions.assertTrue(new File(dir, "access.log.1").exists());
+        Assertions.assertTrue(new File(dir, "access.log.2").exists());
+        Assertions.assertFalse(new File(dir, "access.log.3").exists(), "Only the maximum amount of rotated files should be kept");
+        Assertions.assertTrue(Files.readString(new File(dir, "access.log.1").toPath()).contains("\"GET /3 "), "Most recent file should be first");
+    }
+
+    @Test
+    public final void rotationFailure() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final File file = new File(dir, "access.log");
+        final File blocked = new File(dir, "access.log.1"); // a directory that is not empty can not be replaced
+        Assertions.assertTrue(blocked.mkdir());
+        Files.write(new File(blocked, "entry").toPath(), new byte[0]);
+
+        final AccessLog log = new AccessLog(file, 16, 1, 1); // rotate after every write
+        server.setAccessLog(log);
+        server.createContext("", (SimpleHttpHandler) exchange -> exchange.send(""));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        try{
+            for(int i = 0; i < 4; i++){
+                client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/" + i)).build(), HttpResponse.BodyHandlers.ofString());
+                Thread.sleep(50); // separate writes
+            }
+        }finally{
+            server.stop();
+            log.close();
+        }
+
+        Assertions.assertEquals(4, Files.readAllLines(file.toPath()).size(), "Entries should be written to the current file when rotation fails");
+        Assertions.assertEquals(4, log.getWritten());
+        Assertions.assertEquals(0, log.getDropped());
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.*;
+
+public final class SimpleHttpServerBulkheadTests {
+
+    @Test
+    public final void bulkhead() throws IOException, InterruptedException, ExecutionException, TimeoutException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        server.setExecutor(executor);
+        server.setContextStatisticsEnabled(true);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final Bulkhead bulkhead = new Bulkhead(1, 1);
+        server.createContext("slow", (SimpleHttpHandler) exchange -> {
+            try{ release.await();
+            }catch(final InterruptedException ignored){ }
+            exchange.send("slow");
+        }, null, bulkhead);
+        server.createContext("fast", (SimpleHttpHandler) exchange -> exchange.send("fast"));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+        final HttpRequest slow = HttpRequest.newBuilder(URI.create(url + "/slow")).build();
+        try{
+            final CompletableFuture<HttpResponse<String>> active = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && bulkhead.getActive() < 1; i++)
+                Thread.sleep(10);
+            final CompletableFuture<HttpResponse<String>> queued = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && bulkhead.getQueued() < 1; i++)
+                Thread.sleep(10);
+            Assertions.assertEquals(1, bulkhead.getActive());
+            Assertions.assertEquals(1, bulkhead.getQueued());
+
+            final HttpResponse<String> rejected = client.send(slow, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(503, rejected.statusCode(), "Exchange should be rejected when the bulkhead queue is full");
+            Assertions.assertEquals(1, bulkhead.getRejected());
+
+            // server executor threads are not held by the slow context
+            for(int i = 0; i < 4; i++)
+                Assertions.assertEquals("fast", client.send(HttpRequest.newBuilder(URI.create(url + "/fast")).build(), HttpResponse.BodyHandlers.ofString()).body());
+
+            release.countDown();
+            Assertions.assertEquals("slow", active.get(5, TimeUnit.SECONDS).body());
+            Assertions.assertEquals("slow", queued.get(5, TimeUnit.SECONDS).body());
+            for(int i = 0; i < 500 && bulkhead.getCompleted() < 2; i++)
+                Thread.sleep(10);
+            Assertions.assertEquals(2, bulkhead.getCompleted());
+            Assertions.assertEquals(2, server.getContextStatistics("slow").getResponses(2), "Exchanges on the bulkhead should be recorded");
+        }finally{
+            release.countDown();
+            server.stop();
+            bulkhead.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public final void drain() throws IOException, InterruptedException, ExecutionException, TimeoutException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        server.setExecutor(executor);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final Bulkhead bulkhead = new Bulkhead(1, 1);
+        server.createContext("slow", (SimpleHttpHandler) exchange -> {
+            try{ release.await();
+            }catch(final InterruptedException ignored){ }
+            exchange.send("slow");
+        }, null, bulkhead);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest slow = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/slow")).build();
+        try{
+            final CompletableFuture<HttpResponse<String>> active = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && bulkhead.getActive() < 1; i++)
+                Thread.sleep(10);
+            final CompletableFuture<HttpResponse<String>> queued = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            for(int i = 0; i < 500 && bulkhead.getQueued() < 1; i++)
+                Thread.sleep(10);
+            Assertions.assertEquals(2, server.getActiveExchanges(), "Queued exchanges should be active");
+
+            Assertions.assertEquals(503, client.send(slow, HttpResponse.BodyHandlers.ofString()).statusCode());
+            Assertions.assertEquals(2, server.getActiveExchanges(), "Rejected exchanges should not stay active");
+
+            new Thread(() -> {
+                try{ Thread.sleep(250);
+                }catch(final InterruptedException ignored){ }
+                release.countDown();
+            }).start();
+            server.stop(10);
+
+            Assertions.assertEquals(0, server.getActiveExchanges());
+            Assertions.assertEquals("slow", active.get(5, TimeUnit.SECONDS).body());
+            Assertions.assertEquals("slow", queued.get(5, TimeUnit.SECONDS).body(), "Queued exchange should complete while stopping");
+            Assertions.assertFalse(((ExecutorService) bulkhead.getExecutor()).isShutdown(), "Bulkhead may be shared and should be left open when the server stops");
+        }finally{
+            release.countDown();
+            server.stop();
+            bulkhead.close();
+            executor.shutdownNow();
+        }
+    }
+
+}
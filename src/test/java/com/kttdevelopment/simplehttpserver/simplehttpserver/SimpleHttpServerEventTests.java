@@ -0,0 +1,82 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import com.kttdevelopment.simplehttpserver.handler.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public final class SimpleHttpServerEventTests {
+
+    @TempDir
+    public final File dir = new File(UUID.randomUUID().toString());
+
+    @Test
+    public final void events() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setHttpSessionHandler(new HttpSessionHandler());
+
+        final String body = "events";
+        server.createContext("simple", new ThrottledHandler((SimpleHttpHandler) exchange -> exchange.send(body), new ExchangeThrottler()));
+
+        final File file = new File(dir, "file.txt");
+        Files.write(file.toPath(), body.getBytes());
+        final FileHandler fileHandler = new FileHandler();
+        fileHandler.addFile(file, ByteLoadingOption.PRELOAD);
+        server.createContext("files", fileHandler);
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+
+        final Path output = new File(dir, "events.jfr").toPath();
+        try(final Recording recording = new Recording()){
+            for(final String event : new String[]{"Exchange", "SessionLookup", "ThrottleDecision", "HandlerExecution", "FileCache", "ResponseHeaders", "ResponseBody"})
+                recording.enable("com.kttdevelopment.simplehttpserver." + event).withoutThreshold();
+            recording.start();
+
+            Assertions.assertEquals(body, client.send(HttpRequest.newBuilder().uri(URI.create(url + "/simple")).build(), HttpResponse.BodyHandlers.ofString()).body());
+            Assertions.assertEquals(body, client.send(HttpRequest.newBuilder().uri(URI.create(url + "/files/file.txt")).build(), HttpResponse.BodyHandlers.ofString()).body());
+
+            recording.stop();
+            recording.dump(output);
+        }finally{
+            server.stop();
+        }
+
+        final Map<String,List<RecordedEvent>> events = new HashMap<>();
+        for(final RecordedEvent event : RecordingFile.readAllEvents(output))
+            events.computeIfAbsent(event.getEventType().getName().substring("com.kttdevelopment.simplehttpserver.".length()), k -> new ArrayList<>()).add(event);
+
+        Assertions.assertEquals(2, events.get("Exchange").size());
+        Assertions.assertEquals(2, events.get("SessionLookup").size());
+        Assertions.assertEquals(2, events.get("HandlerExecution").size());
+        Assertions.assertEquals(2, events.get("ResponseHeaders").size());
+
+        final RecordedEvent throttle = events.get("ThrottleDecision").get(0);
+        Assertions.assertEquals("/simple", throttle.getString("context"));
+        Assertions.assertTrue(throttle.getBoolean("accepted"));
+
+        Assertions.assertEquals("hit", events.get("FileCache").get(0).getString("result"));
+
+        for(final RecordedEvent event : events.get("ResponseBody")){
+            Assertions.assertEquals(200, event.getInt("status"));
+            Assertions.assertEquals(body.length(), event.getLong("bytes"));
+        }
+        Assertions.assertEquals(2, events.get("ResponseBody").size());
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+
+public final class SimpleHttpServerKeepAliveTests {
+
+    @Test
+    public final void maxRequestsPerConnection() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        Assertions.assertEquals(-1, server.getMaxRequestsPerConnection(), "#getMaxRequestsPerConnection() should initially be unlimited");
+        Assertions.assertEquals(-1, server.getKeepAliveTimeout(), "#getKeepAliveTimeout() should initially be the default");
+
+        server.setMaxRequestsPerConnection(2);
+        server.setKeepAliveTimeout(5);
+
+        final String context = "";
+        server.createContext(context, (SimpleHttpHandler) exchange -> exchange.send(exchange.toString()));
+        server.start();
+
+        final String url = "http://localhost:" + port + context;
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .build();
+
+        try{
+            final HttpResponse<String> first = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals("timeout=5, max=1", first.headers().firstValue("Keep-Alive").orElse(null), "First response should advertise the remaining keep-alive requests");
+
+            final HttpResponse<String> second = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals("close", second.headers().firstValue("Connection").orElse(null), "Connection should be closed after reaching the maximum requests per connection");
+
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            final ConnectionStatistics statistics = server.getConnectionStatistics();
+            Assertions.assertEquals(3, statistics.getRequests(), "Server should have handled 3 requests");
+            Assertions.assertEquals(2, statistics.getConnections(), "Client should have opened a new connection after the first was closed");
+            Assertions.assertEquals(1, statistics.getReusedRequests(), "Second request should have reused the first connection");
+            Assertions.assertEquals(1, statistics.getLimitedConnections(), "One connection should have been closed by the request limit");
+        }finally{
+            server.stop();
+        }
+    }
+
+    @Test
+    public final void unlimited() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final String context = "";
+        server.createContext(context, (SimpleHttpHandler) exchange -> exchange.send(exchange.toString()));
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + context))
+            .build();
+
+        try{
+            final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertTrue(response.headers().firstValue("Keep-Alive").isEmpty(), "Response should not advertise keep-alive limits when none are set");
+
+            final ConnectionStatistics statistics = server.getConnectionStatistics();
+            Assertions.assertEquals(0, statistics.getRequests(), "Requests should not be tracked when no limits are set");
+            Assertions.assertEquals(0, statistics.getActiveConnections(), "Connections should not be tracked when no limits are set");
+        }finally{
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public final class SimpleHttpServerSchedulerTests {
+
+    @Test
+    public final void weighted() throws IOException, InterruptedException{
+        final FairScheduler scheduler = new FairScheduler.Builder(1)
+            .setClassifier(FairScheduler.byHeader("X-Priority"))
+            .addClass("high", 3)
+            .addClass("low", 1)
+            .setStarvationTimeout(-1)
+            .build();
+        final List<String> order = serve(scheduler);
+
+        Assertions.assertEquals("high", order.get(0), "Higher weight class should be served first: " + order);
+        Assertions.assertEquals(6, order.subList(0, 8).stream().filter("high"::equals).count(), "Higher weight class should be served about three times as often: " + order);
+        Assertions.assertEquals(6, scheduler.getStatistics("high").getRequests());
+        Assertions.assertEquals(7, scheduler.getStatistics("low").getRequests());
+        Assertions.assertEquals(6 * "high".length(), scheduler.getStatistics("high").getBytesWritten(), "Response bytes should be recorded for each class");
+        Assertions.assertEquals(7 * "low".length(), scheduler.getStatistics("low").getBytesWritten());
+        Assertions.assertEquals(0, scheduler.getStarved("low"));
+    }
+
+    @Test
+    public final void starvation() throws IOException, InterruptedException{
+        final FairScheduler scheduler = new FairScheduler.Builder(1)
+            .setClassifier(FairScheduler.byHeader("X-Priority"))
+            .addClass("high", 1000)
+            .addClass("low", 1)
+            .setStarvationTimeout(0)
+            .build();
+        final List<String> order = serve(scheduler);
+
+        Assertions.assertEquals("low", order.get(0), "Exchange waiting past the starvation timeout should be served first: " + order);
+        Assertions.assertTrue(scheduler.getStarved("low") > 0);
+    }
+
+    @Test
+    public final void rejected() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final FairScheduler scheduler = new FairScheduler.Builder(1).addClass(FairScheduler.DEFAULT_CLASS, 1, 0).build();
+        server.setScheduler(scheduler);
+        Assertions.assertSame(scheduler, server.getScheduler());
+        server.createContext("", (SimpleHttpHandler) exchange -> exchange.send("ok"));
+        server.start();
+
+        try{
+            final HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + port)).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(503, response.statusCode());
+            Assertions.assertEquals(1, scheduler.getRejected(FairScheduler.DEFAULT_CLASS));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> scheduler.getQueued("missing"));
+        }finally{
+            server.stop();
+            scheduler.close();
+        }
+    }
+
+    // blocks the only thread, queues six low then six high priority exchanges, and returns the order they were handled in
+    private static List<String> serve(final FairScheduler scheduler) throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.setScheduler(scheduler);
+
+        final CountDownLatch held = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        server.createContext("", (SimpleHttpHandler) exchange -> {
+            final String priority = exchange.getRequestHeaders().getFirst("X-Priority");
+            if(exchange.getURI().getPath().equals("/hold"))
+                try{ held.countDown();
+                    release.await();
+                }catch(final InterruptedException ignored){ }
+            else
+                order.add(priority);
+            exchange.send(priority);
+        });
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port;
+        final List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        try{
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(url + "/hold")).header("X-Priority", "low").build(), HttpResponse.BodyHandlers.ofString()));
+            Assertions.assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            for(final String priority : new String[]{"low", "high"}){
+                for(int i = 0; i < 6; i++)
+                    responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(url)).header("X-Priority", priority).build(), HttpResponse.BodyHandlers.ofString()));
+                for(int i = 0; i < 500 && scheduler.getQueued(priority) < 6; i++)
+                    Thread.sleep(10);
+                Assertions.assertEquals(6, scheduler.getQueued(priority), scheduler.toString());
+            }
+
+            release.countDown();
+            for(final CompletableFuture<HttpResponse<String>> response : responses)
+                Assertions.assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+            for(int i = 0; i < 500 && scheduler.getStatistics("low").getRequests() + scheduler.getStatistics("high").getRequests() < 13; i++)
+                Thread.sleep(10);
+        }catch(final ExecutionException | TimeoutException e){
+            Assertions.fail(e);
+        }finally{
+            release.countDown();
+            server.stop();
+            scheduler.close();
+        }
+        return order;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.TimeUnit;
+
+public final class SimpleHttpServerStatisticsTests {
+
+    @Test
+    public final void statistics() throws IOException, InterruptedException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        final String body = "statistics";
+
+        final String context = "stats";
+        server.createContext(context, (SimpleHttpHandler) exchange -> {
+            if(exchange.hasGet())
+                exchange.send(404);
+            else
+                exchange.send(body);
+            exchange.close();
+        });
+        server.start();
+
+        final HttpClient client = HttpClient.newHttpClient();
+        final String url = "http://localhost:" + port + '/' + context;
+
+        try{
+            client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(0, server.getContextStatistics(context).getRequests(), "Statistics should not be recorded unless enabled");
+
+            server.setContextStatisticsEnabled(true);
+            final int requests = 10;
+            for(int i = 0; i < requests; i++)
+                client.send(HttpRequest.newBuilder().uri(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+            client.send(HttpRequest.newBuilder().uri(URI.create(url + "?missing")).build(), HttpResponse.BodyHandlers.ofString());
+
+            final ContextStatistics statistics = server.getContextStatistics(context);
+            Assertions.assertEquals(requests + 1, statistics.getRequests());
+            Assertions.assertEquals(requests, statistics.getResponses(2));
+            Assertions.assertEquals(1, statistics.getResponses(4));
+            Assertions.assertEquals((long) requests * body.length(), statistics.getBytesWritten());
+
+            Assertions.assertTrue(statistics.getMedianLatency() > 0);
+            Assertions.assertTrue(statistics.getMedianLatency() <= statistics.get99thPercentileLatency());
+            Assertions.assertTrue(statistics.get99thPercentileLatency() <= statistics.get999thPercentileLatency());
+            Assertions.assertTrue(statistics.get999thPercentileLatency() <= statistics.getMaxLatency());
+            Assertions.assertTrue(statistics.getMaxLatency() < TimeUnit.SECONDS.toNanos(10));
+
+            Assertions.assertEquals(1, server.getContextStatistics().size());
+            server.removeContext(context);
+            Assertions.assertNull(server.getContextStatistics(context), "Removed context should not have statistics");
+        }finally{
+            server.stop();
+        }
+    }
+
+}
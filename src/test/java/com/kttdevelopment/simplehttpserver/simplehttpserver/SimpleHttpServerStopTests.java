@@ -0,0 +1,60 @@
+package com.kttdevelopment.simplehttpserver.simplehttpserver;
+
+import com.kttdevelopment.simplehttpserver.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.*;
+import java.util.concurrent.*;
+
+public final class SimpleHttpServerStopTests {
+
+    @Test
+    public final void stopIdle() throws IOException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.start();
+
+        final long start = System.currentTimeMillis();
+        server.stop(10);
+        Assertions.assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(5), "Server with no active exchanges should stop without waiting for the delay");
+    }
+
+    @Test
+    public final void stopDrain() throws IOException, InterruptedException, ExecutionException{
+        final int port = 8080;
+
+        final SimpleHttpServer server = SimpleHttpServer.create(port);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        final String context = "";
+        server.createContext(context, (SimpleHttpHandler) exchange -> {
+            try{ Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+            }catch(final InterruptedException ignored){ }
+            exchange.send(exchange.toString());
+        });
+        server.start();
+
+        final String url = "http://localhost:" + port + context;
+
+        final HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .build();
+
+        final CompletableFuture<Integer> response = HttpClient.newHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .thenApply(HttpResponse::statusCode);
+
+        while(server.getActiveExchanges() == 0)
+            Thread.sleep(10);
+
+        final long start = System.currentTimeMillis();
+        server.stop(10);
+        Assertions.assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(5), "Server should stop once the active exchange completes");
+        Assertions.assertEquals(0, server.getActiveExchanges(), "Server should have no active exchanges after draining");
+        Assertions.assertEquals(200, response.get(), "Active exchange should complete while the server drains");
+    }
+
+}